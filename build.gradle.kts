@@ -1,6 +1,7 @@
 plugins {
     `maven-publish`
     id("hytale-mod") version "0.+"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.example"
@@ -52,6 +53,63 @@ tasks.named<ProcessResources>("processResources") {
     inputs.properties(replaceProperties)
 }
 
+// Compiles HCA/*hca_pack.json (+ their index/weapon files) into HCA/HCA_pack.hcab.
+// ModPackScanner loads the bundle directly and falls back to the JSON when it is missing or
+// stale (any source file's size/CRC differs from the one recorded in the bundle)
+val hcaBundleDir = layout.buildDirectory.dir("generated/hcaBundle")
+
+val compileHcaBundle = tasks.register<JavaExec>("compileHcaBundle") {
+    group = "hytale"
+    description = "Compiles the mod's HCA JSON packs into a binary HCA bundle."
+
+    val packSources = layout.projectDirectory.dir("src/main/resources")
+    val bundleFile = hcaBundleDir.map { it.file("HCA/HCA_pack.hcab") }
+
+    classpath = sourceSets.main.get().compileClasspath + sourceSets.main.get().output
+    mainClass.set("com.abilities.abilitiesplugin.PackBundle")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(packSources.asFile.absolutePath, bundleFile.get().asFile.absolutePath)
+    })
+
+    // Packs point into the whole tree (e.g. Server/Item/Items/Weapons/**/index.json), not just HCA/
+    inputs.dir(packSources)
+    outputs.dir(hcaBundleDir)
+}
+
+tasks.named<Jar>("jar") {
+    from(compileHcaBundle)
+}
+
+// Microbenchmarks live in src/jmh/java (same package as the plugin, so package-private types are reachable).
+// ./gradlew jmh runs all of them; -PjmhIncludes=<regex> picks some. The gc profiler reports bytes/op.
+configurations.named("jmhImplementation") {
+    extendsFrom(configurations.compileOnly.get())
+}
+
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.add("gc")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+// Heap bytes per player for both slot storage modes (one JVM each; the mode is fixed per JVM).
+val stateFootprint = tasks.register("stateFootprint") {
+    group = "jmh"
+    description = "Prints per-player heap use of ability state with and without -Dhca.compactSlots."
+}
+
+listOf("arrays" to "false", "compact" to "true").forEach { (mode, compact) ->
+    val run = tasks.register<JavaExec>("stateFootprint${mode.replaceFirstChar { it.uppercase() }}") {
+        group = "jmh"
+        classpath = sourceSets["jmh"].runtimeClasspath
+        mainClass.set("com.abilities.abilitiesplugin.StateFootprint")
+        jvmArgs("-Dhca.compactSlots=$compact", "-XX:+UseSerialGC")
+    }
+    stateFootprint.configure { dependsOn(run) }
+}
+
 tasks.withType<Jar> {
     manifest {
         attributes["Specification-Title"] = rootProject.name
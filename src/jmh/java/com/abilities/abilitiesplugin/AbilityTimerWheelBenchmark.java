@@ -0,0 +1,186 @@
+package com.abilities.abilitiesplugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One ability tick (100ms +/- 30ms of simulated time) for N players with a bar up, 1% of whom
+ * press an ability each tick (3 uses, 2.013s recharge, 0.517s cooldown on every slot). The
+ * jitter and the odd times put deadlines and polls anywhere inside a wheel tick.
+ *
+ * polling: the pre-wheel model. Every player gets all 9 slots recomputed (TickAllSlots) and a
+ *          HUD refresh, whose overlay reads recomputed the slot again.
+ * wheel:   the current code. SpendUse schedules events on HCA_AbilityApi's wheel, the tick fires
+ *          the due ones, and only players with a fired event or a running cooldown overlay are
+ *          refreshed (TickAllSlots there is an O(1) check per slot).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AbilityTimerWheelBenchmark {
+
+    private static final long TICK_MS = 100L;
+    private static final int JITTER_MS = 30;
+    private static final int MAX_USES = 3;
+    private static final float RECHARGE_SEC = 2.013f;
+    private static final float COOLDOWN_SEC = 0.517f;
+
+    @Param({"1000", "10000"})
+    public int players;
+
+    // Simulated clock. Never rewound: the shared wheel only moves forward.
+    private static long now = System.currentTimeMillis();
+
+    private AbilityHotbarState.State[] states;
+    private SplittableRandom rng;
+
+    @Setup
+    public void setup() {
+        rng = new SplittableRandom(42);
+        now += 60_000L; // let anything left over from a previous run fire and drain
+        HCA_AbilityApi.timers().advance(now, s -> {});
+
+        states = new AbilityHotbarState.State[players];
+        for (int p = 0; p < players; p++) {
+            AbilityHotbarState.State s = new AbilityHotbarState.State();
+            s.fillAllEmpty();
+            for (int i = 0; i < 9; i++) {
+                s.setMaxUses(i, MAX_USES);
+                s.setRemainingUses(i, MAX_USES);
+                s.setRechargeTime(i, RECHARGE_SEC);
+                s.setCooldownTime(i, COOLDOWN_SEC);
+                s.setLastUpdateMs(i, now);
+            }
+            states[p] = s;
+        }
+    }
+
+    @Benchmark
+    public void polling(Blackhole bh) {
+        step();
+        pressSome(false);
+
+        for (AbilityHotbarState.State s : states) {
+            for (int i = 0; i < 9; i++) pollRecharge(s, i, now);
+
+            // HUD refresh: every player, every tick
+            for (int i = 0; i < 9; i++) {
+                pollRecharge(s, i, now);
+                bh.consume(HCA_AbilityApi.getCooldownOverlayRatio(s, i, now));
+                bh.consume(s.remainingUses(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public void wheel(Blackhole bh) {
+        step();
+        pressSome(true);
+
+        HCA_AbilityApi.timers().advance(now, AbilityTimerWheelBenchmark::onFire);
+
+        for (AbilityHotbarState.State s : states) {
+            if (!s.timerEventPending && !HCA_AbilityApi.hasActiveCooldown(s, now)) continue;
+            s.timerEventPending = false;
+
+            // HUD refresh
+            HCA_AbilityApi.tickAllSlots(s, now);
+            for (int i = 0; i < 9; i++) {
+                bh.consume(HCA_AbilityApi.getCooldownOverlayRatio(s, i, now));
+                bh.consume(s.remainingUses(i));
+            }
+        }
+    }
+
+    /**
+     * Every charge the wheel should have delivered was (the refresh re-arms the slot's next
+     * charge). A wheel visit may fire an event up to one wheel tick after its deadline, never later.
+     */
+    @TearDown(Level.Iteration)
+    public void checkNoLateCharges() {
+        long tooLate = now - AbilityTimerWheel.DEFAULT_TICK_MS;
+        for (AbilityHotbarState.State s : states) {
+            for (int i = 0; i < 9; i++) {
+                long next = s.nextChargeAtMs(i);
+                if (next != Long.MAX_VALUE && next < tooLate) {
+                    throw new IllegalStateException("charge due at " + next + " still pending at " + now);
+                }
+            }
+        }
+    }
+
+    // ----------------------------
+    // Simulation
+    // ----------------------------
+
+    private void step() {
+        now += TICK_MS - JITTER_MS + rng.nextInt(2 * JITTER_MS + 1);
+    }
+
+    private void pressSome(boolean wheel) {
+        int presses = Math.max(1, players / 100);
+        for (int n = 0; n < presses; n++) {
+            AbilityHotbarState.State s = states[rng.nextInt(players)];
+            int i = rng.nextInt(9);
+
+            if (wheel) {
+                HCA_AbilityApi.spendUse(s, i, now);
+                continue;
+            }
+
+            // the old SpendUse
+            pollRecharge(s, i, now);
+            if (now < s.cooldownUntilMs(i) || s.remainingUses(i) <= 0) continue;
+
+            s.setRemainingUses(i, s.remainingUses(i) - 1);
+            s.setRechargeAccumulatorSec(i, 0.0);
+            s.setLastUpdateMs(i, now);
+            s.setCooldownUntilMs(i, now + (long) (COOLDOWN_SEC * 1000));
+        }
+    }
+
+    private static void onFire(AbilityHotbarState.State s) {
+        s.timerEventPending = true;
+    }
+
+    /** HCA_AbilityApi.tickRecharge as it was before the wheel (recomputed on every read). */
+    private static void pollRecharge(AbilityHotbarState.State s, int idx, long nowMs) {
+        int max = s.maxUses(idx);
+        float rechargeSec = s.rechargeTime(idx);
+        if (max <= 0 || rechargeSec <= 0.0f) {
+            s.setLastUpdateMs(idx, nowMs);
+            return;
+        }
+
+        long last = s.lastUpdateMs(idx);
+        long deltaMs = nowMs - last;
+        if (deltaMs <= 0L) return;
+
+        if (s.remainingUses(idx) >= max) {
+            s.setRechargeAccumulatorSec(idx, 0.0);
+            s.setLastUpdateMs(idx, nowMs);
+            return;
+        }
+
+        double accumulator = s.rechargeAccumulatorSec(idx) + (deltaMs / 1000.0);
+        while (accumulator + 1e-9 >= rechargeSec && s.remainingUses(idx) < max) {
+            s.setRemainingUses(idx, s.remainingUses(idx) + 1);
+            accumulator -= rechargeSec;
+        }
+
+        s.setRechargeAccumulatorSec(idx, Math.max(0.0, accumulator));
+        s.setLastUpdateMs(idx, nowMs);
+    }
+}
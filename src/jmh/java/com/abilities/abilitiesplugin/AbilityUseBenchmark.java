@@ -0,0 +1,98 @@
+package com.abilities.abilitiesplugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building what a plugin ability handler receives for one press: the slot's
+ * PackagedAbilityData and the player's AbilityContext. Run with the gc profiler
+ * (./gradlew jmh, or -prof gc) to see bytes/op.
+ *
+ * fresh:  new objects on every press, as before the per-slot cache.
+ * cached: AbilitySystem.slotData + AbilityContext.reuse, i.e. the current useSlot.
+ *
+ * uses=unlimited: RemainingUses never moves, so cached allocates nothing.
+ * uses=limited:   RemainingUses changes every press (3 -> 2 -> 1 -> 3), so cached builds
+ *                 a new PackagedAbilityData each time and reuses only the context.
+ *
+ * The rest of a press (the filter's posted lambdas, HUD refresh, and new EmptyHud on a
+ * bar toggle) is not covered here and still allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AbilityUseBenchmark {
+
+    private static final int SLOT = 4;
+
+    @Param({"unlimited", "limited"})
+    public String uses;
+
+    private AbilityHotbarState.State s;
+    private AbilityContext ctx;
+    private boolean limited;
+
+    @Setup
+    public void setup() {
+        s = new AbilityHotbarState.State();
+        s.fillAllEmpty();
+
+        s.setItemId(SLOT, "Ability_Bench");
+        s.setRootInteraction(SLOT, "Root_Ability_Bench");
+        s.setAbilityId(SLOT, "combat_abilities:bench");
+        s.setPluginFlag(SLOT, true);
+        s.setMaxUses(SLOT, 3);
+        s.setRemainingUses(SLOT, 3);
+        s.setPowerMultiplier(SLOT, 1.5f);
+        s.setAbilityValue(SLOT, 7);
+
+        limited = uses.equals("limited");
+    }
+
+    @Benchmark
+    public void fresh(Blackhole bh) {
+        spend();
+        bh.consume(new PackagedAbilityData(
+                SLOT,
+                s.itemId(SLOT),
+                s.abilityId(SLOT),
+                s.maxUses(SLOT),
+                s.powerMultiplier(SLOT),
+                s.abilityValue(SLOT),
+                s.rootInteraction(SLOT),
+                s.remainingUses(SLOT),
+                s.consumeFlag(SLOT)
+        ));
+        bh.consume(AbilityContext.reuse(null, null, null, null, null, null, 1.0f, s.abilityValue(SLOT)));
+    }
+
+    @Benchmark
+    public void cached(Blackhole bh) {
+        spend();
+        bh.consume(AbilitySystem.slotData(
+                s,
+                SLOT,
+                s.abilityId(SLOT),
+                s.rootInteraction(SLOT),
+                s.abilityValue(SLOT),
+                s.consumeFlag(SLOT)
+        ));
+        ctx = AbilityContext.reuse(ctx, null, null, null, null, null, 1.0f, s.abilityValue(SLOT));
+        bh.consume(ctx);
+    }
+
+    private void spend() {
+        if (!limited) return;
+        int left = s.remainingUses(SLOT) - 1;
+        s.setRemainingUses(SLOT, (left < 1) ? 3 : left);
+    }
+}
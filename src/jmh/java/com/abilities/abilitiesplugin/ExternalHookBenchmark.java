@@ -0,0 +1,225 @@
+package com.abilities.abilitiesplugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One legacy-chain dispatch across N mods' doAbility hooks, where only the last mod
+ * claims the ability (every hook runs once, from one megamorphic call site).
+ *
+ * reflective: Method.invoke, as before hooks were bound.
+ * captured:   the old fallback, a lambda calling a captured MethodHandle with invokeExact.
+ * constant:   ExternalExecutorChain.bindHandle, i.e. a ConstantHook hidden class per hook
+ *             (what mods in their own class loader get).
+ * lambda:     ExternalExecutorChain.bindLambda (LambdaMetafactory; only same-module hooks).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExternalHookBenchmark {
+
+    private static final MethodType HOOK_TYPE =
+            MethodType.methodType(boolean.class, PackagedAbilityData.class, AbilityContext.class);
+
+    private static final Class<?>[] MODS = {Mod01.class, Mod02.class, Mod03.class, Mod04.class, Mod05.class, Mod06.class, Mod07.class, Mod08.class, Mod09.class, Mod10.class, Mod11.class, Mod12.class, Mod13.class, Mod14.class, Mod15.class, Mod16.class, Mod17.class, Mod18.class, Mod19.class, Mod20.class};
+
+    @Param({"1", "5", "20"})
+    public int mods;
+
+    @Param({"reflective", "captured", "constant", "lambda"})
+    public String binding;
+
+    private Object[] plugins;
+    private Method[] methods;
+    private IExternalAbilityExecutor[] executors;
+    private PackagedAbilityData data;
+    private AbilityContext ctx;
+
+    @Setup
+    public void setup() throws Throwable {
+        plugins = new Object[mods];
+        methods = new Method[mods];
+        executors = new IExternalAbilityExecutor[mods];
+
+        for (int i = 0; i < mods; i++) {
+            Object plugin = MODS[i].getConstructor().newInstance();
+            Method m = MODS[i].getMethod("doAbility", PackagedAbilityData.class, AbilityContext.class);
+            plugins[i] = plugin;
+            methods[i] = m;
+
+            switch (binding) {
+                case "captured" -> executors[i] = captured(MethodHandles.lookup().unreflect(m).bindTo(plugin).asType(HOOK_TYPE));
+                case "constant" -> executors[i] = ExternalExecutorChain.bindHandle(MethodHandles.lookup().unreflect(m).bindTo(plugin).asType(HOOK_TYPE));
+                case "lambda" -> executors[i] = ExternalExecutorChain.bindLambda(plugin, m);
+                default -> { }
+            }
+        }
+
+        // the last mod is the one that claims it
+        data = new PackagedAbilityData(0, 0, "Ability_Bench", "bench:hook", 3, 1.0f, mods, "Root_Ability_Bench", 3, false);
+        ctx = null; // the stand-in hooks only read data
+    }
+
+    @Benchmark
+    public boolean dispatch() throws Exception {
+        if (binding.equals("reflective")) {
+            for (int i = 0; i < plugins.length; i++) {
+                if ((Boolean) methods[i].invoke(plugins[i], data, ctx)) return true;
+            }
+            return false;
+        }
+
+        for (IExternalAbilityExecutor e : executors) {
+            if (e.doAbility(data, ctx)) return true;
+        }
+        return false;
+    }
+
+    private static IExternalAbilityExecutor captured(MethodHandle bound) {
+        return (d, c) -> {
+            try {
+                return (boolean) bound.invokeExact(d, c);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        };
+    }
+
+    // ----------------------------
+    // Stand-in mods (one class each, so the call site sees N receiver types)
+    // ----------------------------
+
+    public static final class Mod01 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 1;
+        }
+    }
+
+    public static final class Mod02 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 2;
+        }
+    }
+
+    public static final class Mod03 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 3;
+        }
+    }
+
+    public static final class Mod04 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 4;
+        }
+    }
+
+    public static final class Mod05 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 5;
+        }
+    }
+
+    public static final class Mod06 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 6;
+        }
+    }
+
+    public static final class Mod07 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 7;
+        }
+    }
+
+    public static final class Mod08 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 8;
+        }
+    }
+
+    public static final class Mod09 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 9;
+        }
+    }
+
+    public static final class Mod10 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 10;
+        }
+    }
+
+    public static final class Mod11 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 11;
+        }
+    }
+
+    public static final class Mod12 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 12;
+        }
+    }
+
+    public static final class Mod13 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 13;
+        }
+    }
+
+    public static final class Mod14 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 14;
+        }
+    }
+
+    public static final class Mod15 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 15;
+        }
+    }
+
+    public static final class Mod16 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 16;
+        }
+    }
+
+    public static final class Mod17 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 17;
+        }
+    }
+
+    public static final class Mod18 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 18;
+        }
+    }
+
+    public static final class Mod19 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 19;
+        }
+    }
+
+    public static final class Mod20 {
+        public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+            return data.AbilityValue == 20;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.abilities.abilitiesplugin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses N synthetic weapon files (9 slots each, a few unknown keys) from memory.
+ *
+ * tree:      the pre-streaming parse. JsonParser builds a JsonObject per file, then the
+ *            fields are read out of it.
+ * streaming: PackJsonReader.readWeapon, straight from the token stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PackParseBenchmark {
+
+    @Param({"10000"})
+    public int weapons;
+
+    private byte[][] files;
+
+    @Setup
+    public void setup() {
+        files = new byte[weapons][];
+        for (int w = 0; w < weapons; w++) {
+            StringBuilder sb = new StringBuilder(4096);
+            sb.append("{\n  \"ItemId\": \"Weapon_Bench_").append(w).append("\",\n")
+                    .append("  \"AbilityBar\": \"Pages/HCA_AbilityBar.ui\",\n")
+                    .append("  \"Description\": \"Synthetic weapon used by PackParseBenchmark\",\n")
+                    .append("  \"AbilitySlots\": [\n");
+            for (int i = 0; i < 9; i++) {
+                if (i > 0) sb.append(",\n");
+                sb.append("    {\"Key\": \"Ability_Bench_").append(i).append("\",")
+                        .append(" \"RootInteraction\": \"Root_Ability_Bench_").append(i).append("\",")
+                        .append(" \"ID\": \"combat_abilities:bench_").append(i).append("\",")
+                        .append(" \"Plugin\": ").append(i % 2 == 0).append(',')
+                        .append(" \"MaxUses\": 3, \"PowerMultiplier\": 1.25, \"AbilityValue\": ").append(i).append(',')
+                        .append(" \"Icon\": \"Icons/Bench_").append(i).append(".png\",")
+                        .append(" \"CooldownTime\": 0.5, \"RechargeTime\": 2.0, \"StartWithCooldown\": false,")
+                        .append(" \"Editor\": {\"Color\": [255, 128, 0], \"Notes\": \"unused\"}}");
+            }
+            sb.append("\n  ]\n}\n");
+            files[w] = sb.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public void streaming(Blackhole bh) throws IOException {
+        for (byte[] f : files) {
+            bh.consume(PackJsonReader.readWeapon(new ByteArrayInputStream(f)));
+        }
+    }
+
+    @Benchmark
+    public void tree(Blackhole bh) throws IOException {
+        for (byte[] f : files) {
+            try (InputStreamReader r = new InputStreamReader(new ByteArrayInputStream(f), StandardCharsets.UTF_8)) {
+                JsonElement el = JsonParser.parseReader(r);
+                bh.consume(el.isJsonObject() ? treeWeapon(el.getAsJsonObject()) : null);
+            }
+        }
+    }
+
+    /** WeaponRegistry.parseWeaponDefinition as it was before PackJsonReader. */
+    private static WeaponDefinition treeWeapon(JsonObject obj) {
+        WeaponDefinition def = new WeaponDefinition();
+        def.ItemId = PackJsonReader.asString(obj.get("ItemId"));
+        def.AbilityBar = PackJsonReader.asString(obj.get("AbilityBar"));
+
+        JsonArray slotsArr = obj.getAsJsonArray("AbilitySlots");
+        List<WeaponAbilitySlot> slots = new ArrayList<>();
+        if (slotsArr != null) {
+            for (JsonElement el : slotsArr) {
+                if (!el.isJsonObject()) continue;
+                JsonObject s = el.getAsJsonObject();
+
+                WeaponAbilitySlot slot = new WeaponAbilitySlot();
+                slot.Key = PackJsonReader.asString(s.get("Key"));
+                slot.RootInteraction = PackJsonReader.asString(s.get("RootInteraction"));
+                slot.ID = PackJsonReader.asString(s.get("ID"));
+                slot.Plugin = PackJsonReader.asBooleanLenient(s.get("Plugin"));
+                slot.MaxUses = PackJsonReader.asInt(s.get("MaxUses"), 0);
+                slot.PowerMultiplier = PackJsonReader.asFloat(s.get("PowerMultiplier"), 1.0f);
+                slot.Icon = PackJsonReader.asString(s.get("Icon"));
+                slot.AbilityValue = PackJsonReader.asInt(s.get("AbilityValue"), 0);
+                slot.Consume = PackJsonReader.asBooleanLenient(s.get("Consume"));
+                float legacyTime = PackJsonReader.asFloat(s.get("Time"), -1.0f);
+                slot.CooldownTime = PackJsonReader.asFloat(s.get("CooldownTime"), (legacyTime >= 0.0f) ? legacyTime : 0.3f);
+                slot.RechargeTime = PackJsonReader.asFloat(s.get("RechargeTime"), (legacyTime >= 0.0f) ? legacyTime : 1.0f);
+                JsonElement swc = s.get("StartWithCooldown");
+                slot.StartWithCooldown = (swc == null || swc.isJsonNull()) || PackJsonReader.asBooleanLenient(swc);
+                slots.add(slot);
+            }
+        }
+        def.AbilitySlots = slots;
+        return def;
+    }
+}
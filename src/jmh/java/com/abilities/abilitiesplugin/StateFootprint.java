@@ -0,0 +1,70 @@
+package com.abilities.abilitiesplugin;
+
+/**
+ * Heap bytes per player for the per-slot state, in whichever storage mode this JVM runs:
+ *
+ *   ./gradlew stateFootprint
+ *
+ * runs it once per mode (plain arrays, then -Dhca.compactSlots=true). Every player gets a
+ * full 9-slot bar from a small pool of weapons, like a server where most players carry the
+ * same few items; the strings themselves are shared and not counted.
+ */
+public final class StateFootprint {
+
+    private static final int WEAPONS = 20;
+
+    public static void main(String[] args) {
+        int players = (args.length > 0) ? Integer.parseInt(args[0]) : 100_000;
+
+        String[][] keys = new String[WEAPONS][9];
+        for (int w = 0; w < WEAPONS; w++) {
+            for (int i = 0; i < 9; i++) keys[w][i] = ("HCA_Weapon_" + w + "_Slot_" + i).intern();
+        }
+
+        // warm up class init / the string table so only per-player data is measured
+        fill(new AbilityHotbarState.State(), keys[0]);
+
+        long before = usedHeap();
+        AbilityHotbarState.State[] states = new AbilityHotbarState.State[players];
+        for (int p = 0; p < players; p++) {
+            AbilityHotbarState.State s = new AbilityHotbarState.State();
+            fill(s, keys[p % WEAPONS]);
+            states[p] = s;
+        }
+        long after = usedHeap();
+
+        double perPlayer = (after - before) / (double) players;
+        System.out.printf("mode=%s players=%d bytesPerPlayer=%.0f (includes the State object and its array slot)%n",
+                AbilityHotbarState.COMPACT ? "compact" : "arrays", players, perPlayer);
+
+        if (states[players - 1].maxUses(0) != 3) throw new AssertionError();
+    }
+
+    private static void fill(AbilityHotbarState.State s, String[] keys) {
+        s.fillAllEmpty();
+        for (int i = 0; i < 9; i++) {
+            s.setItemId(i, keys[i]);
+            s.setRootInteraction(i, keys[i]);
+            s.setAbilityId(i, keys[i]);
+            s.setIcon(i, keys[i]);
+            s.setPluginFlag(i, (i & 1) == 0);
+            s.setMaxUses(i, 3);
+            s.setRemainingUses(i, 3);
+            s.setCooldownTime(i, 0.5f);
+            s.setRechargeTime(i, 2.0f);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
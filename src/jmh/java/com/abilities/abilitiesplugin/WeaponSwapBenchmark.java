@@ -0,0 +1,140 @@
+package com.abilities.abilitiesplugin;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One weapon swap: the held item changed and its bar is bound into the player's state.
+ *
+ * perField: the pre-template bind. Resolves the item three times (ensureRegistered,
+ *           getAbilitySlots, getAbilityBarPath) and copies the slot fields one by one.
+ * template: the current bind. One getBarTemplate lookup and WeaponBarTemplate.applyTo.
+ *
+ * Slots don't start on cooldown, so neither variant schedules timer wheel events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeaponSwapBenchmark {
+
+    @Param({"64"})
+    public int weapons;
+
+    private WeaponRegistry registry;
+    private String[] itemIds;
+    private AbilityHotbarState.State s;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Map<String, String> files = new HashMap<>();
+        StringBuilder index = new StringBuilder("{\"Weapons\":[");
+        for (int w = 0; w < weapons; w++) {
+            StringBuilder def = new StringBuilder();
+            def.append("{\"ItemId\":\"Weapon_Bench_").append(w).append("\",")
+               .append("\"AbilityBar\":\"Pages/HCA_AbilityBar.ui\",\"AbilitySlots\":[");
+            for (int i = 0; i < 9; i++) {
+                if (i > 0) def.append(',');
+                boolean plugin = i % 3 == 0;
+                def.append("{\"Key\":\"Ability_Bench_").append(w).append('_').append(i).append("\",")
+                   .append("\"RootInteraction\":\"Root_Ability_Bench_").append(w).append('_').append(i).append("\",")
+                   .append(plugin ? "\"ID\":\"combat_abilities:bench_" + i + "\",\"Plugin\":true," : "")
+                   .append("\"Icon\":\"Icons/Bench_").append(i).append(".png\",")
+                   .append("\"MaxUses\":3,\"PowerMultiplier\":1.5,\"AbilityValue\":").append(i).append(',')
+                   .append("\"CooldownTime\":0.5,\"RechargeTime\":2.0,\"StartWithCooldown\":false}");
+            }
+            def.append("]}");
+
+            String path = "Weapons/Bench_" + w + ".json";
+            files.put(path, def.toString());
+            if (w > 0) index.append(',');
+            index.append('"').append(path).append('"');
+        }
+        files.put("index.json", index.append("]}").toString());
+
+        itemIds = new String[weapons];
+        registry = new WeaponRegistry();
+        registry.registerIndexFromAccess(path -> {
+            String json = files.get(path);
+            return (json == null) ? null : new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        }, "index.json", new HashSet<>(), "bench");
+        registry.publishSnapshot();
+
+        for (int w = 0; w < weapons; w++) {
+            itemIds[w] = registry.getBarTemplate("Weapon_Bench_" + w).getItemId();
+        }
+
+        s = new AbilityHotbarState.State();
+        s.fillAllEmpty();
+    }
+
+    @Benchmark
+    public AbilityHotbarState.State template() {
+        String itemId = nextItem();
+
+        WeaponBarTemplate t = registry.getBarTemplate(itemId);
+        if (t == null) {
+            s.fillAllEmpty();
+            return s;
+        }
+        t.applyTo(s);
+        return s;
+    }
+
+    @Benchmark
+    public AbilityHotbarState.State perField() {
+        String itemId = nextItem();
+
+        registry.ensureRegistered(itemId);
+        List<WeaponAbilitySlot> slots = registry.getAbilitySlots(itemId);
+        s.abilityBarUiPath = registry.getAbilityBarPath(itemId);
+        if (s.abilityBarUiPath == null || s.abilityBarUiPath.isBlank() || slots == null) {
+            s.fillAllEmpty();
+            return s;
+        }
+
+        for (int i = 0; i < 9; i++) {
+            WeaponAbilitySlot slot = (i < slots.size()) ? slots.get(i) : null;
+
+            s.setItemId(i, (slot == null) ? null : slot.Key);
+            s.setRootInteraction(i, (slot == null) ? null : slot.RootInteraction);
+            s.setAbilityId(i, (slot == null) ? null : slot.ID);
+            s.setPluginFlag(i, slot != null && slot.Plugin);
+            s.setConsumeFlag(i, slot != null && slot.Consume);
+            s.setMaxUses(i, (slot == null) ? 0 : slot.MaxUses);
+            s.setAbilityValue(i, (slot == null) ? 0 : slot.AbilityValue);
+
+            float power = 1.0f;
+            if (slot != null && slot.PowerMultiplier > 0.0f) power = slot.PowerMultiplier;
+            s.setPowerMultiplier(i, power);
+
+            s.setIcon(i, (slot == null) ? null : slot.Icon);
+            s.setCooldownTime(i, (slot == null) ? 0.3f : slot.CooldownTime);
+            s.setRechargeTime(i, (slot == null) ? 1.0f : slot.RechargeTime);
+            s.setStartWithCooldown(i, (slot == null) || slot.StartWithCooldown);
+
+            HCA_AbilityApi.InitializeSlotRuntime(s, i);
+        }
+        return s;
+    }
+
+    private String nextItem() {
+        String itemId = itemIds[next];
+        next = (next + 1 == itemIds.length) ? 0 : next + 1;
+        return itemId;
+    }
+}
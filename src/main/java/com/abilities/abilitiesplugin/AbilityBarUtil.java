@@ -20,12 +20,14 @@ public final class AbilityBarUtil {
     public static void turnOffIfOn(AbilityHotbarState state, Player player, PlayerRef playerRef) {
         if (state == null || player == null || playerRef == null) return;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
         if (s == null) return;
 
         if (!s.enabled) return; // already off
 
         s.enabled = false;
+        s.hud = null;
+        s.publishInput();
         player.getHudManager().setCustomHud(playerRef, new EmptyHud(playerRef));
     }
 
@@ -33,8 +35,12 @@ public final class AbilityBarUtil {
     public static void forceOff(AbilityHotbarState state, Player player, PlayerRef playerRef) {
         if (state == null || player == null || playerRef == null) return;
 
-        var s = state.get(playerRef.getUsername());
-        if (s != null) s.enabled = false;
+        var s = state.peek(playerRef);
+        if (s != null) {
+            s.enabled = false;
+            s.hud = null;
+            s.publishInput();
+        }
 
         player.getHudManager().setCustomHud(playerRef, new EmptyHud(playerRef));
     }
@@ -7,6 +7,12 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
+/**
+ * Who is using the ability and where.
+ *
+ * Immutable like PackagedAbilityData; AbilitySystem keeps the last one per player and hands
+ * it out again while nothing in it changed.
+ */
 public final class AbilityContext {
 
     public final PlayerRef PlayerRef;
@@ -37,6 +43,30 @@ public final class AbilityContext {
         this.AbilityValue = AbilityValue;
     }
 
+    /** {@code previous} if it already holds these values, else a new context. */
+    static AbilityContext reuse(
+            AbilityContext previous,
+            PlayerRef playerRef,
+            Player player,
+            Store<EntityStore> store,
+            Ref<EntityStore> entityRef,
+            World world,
+            float powerMultiplier,
+            int abilityValue
+    ) {
+        if (previous != null
+                && previous.PlayerRef == playerRef
+                && previous.Player == player
+                && previous.Store == store
+                && previous.EntityRef == entityRef
+                && previous.World == world
+                && Float.compare(previous.PowerMultiplier, powerMultiplier) == 0
+                && previous.AbilityValue == abilityValue) {
+            return previous;
+        }
+        return new AbilityContext(playerRef, player, store, entityRef, world, powerMultiplier, abilityValue);
+    }
+
     public static AbilityContext from(
             PlayerRef playerRef,
             Store<EntityStore> store,
@@ -14,10 +14,18 @@ import javax.annotation.Nonnull;
 public class AbilityDebugCommand extends AbstractPlayerCommand {
 
     private final AbilityHotbarState state;
+    private final AbilityTickScheduler tickScheduler;
+    private final AbilityHotbarPacketFilter packetFilter;
 
-    public AbilityDebugCommand(AbilityHotbarState state) {
+    public AbilityDebugCommand(
+            AbilityHotbarState state,
+            AbilityTickScheduler tickScheduler,
+            AbilityHotbarPacketFilter packetFilter
+    ) {
         super("abilitydebug", "Prints current ability bar slots 1-9.");
         this.state = state;
+        this.tickScheduler = tickScheduler;
+        this.packetFilter = packetFilter;
     }
 
     @Override
@@ -29,7 +37,11 @@ public class AbilityDebugCommand extends AbstractPlayerCommand {
             @Nonnull World world
     ) {
         world.execute(() -> {
-            var s = state.get(playerRef.getUsername());
+            var s = state.peek(playerRef);
+            if (s == null) {
+                ctx.sendMessage(Message.raw("No ability state (bar never bound)."));
+                return;
+            }
             HCA_AbilityApi.TickAllSlots(playerRef);
 
             StringBuilder sb = new StringBuilder();
@@ -41,15 +53,19 @@ public class AbilityDebugCommand extends AbstractPlayerCommand {
             for (int i = 0; i < 9; i++) {
                 sb.append(i + 1)
                         .append(": ")
-                        .append(s.hotbarItemIds[i])
-                        .append(" | uses=").append(s.hotbarRemainingUses[i]).append("/").append(s.hotbarMaxUses[i])
-                        .append(" | cooldown=").append(s.hotbarCooldownTimes[i])
-                        .append(" | recharge=").append(s.hotbarRechargeTimes[i])
-                        .append(" | startWithCooldown=").append(s.hotbarStartWithCooldown[i])
-                        .append(" | cooldownMs=").append(Math.max(0L, s.hotbarCooldownUntilMs[i] - now))
+                        .append(s.itemId(i))
+                        .append(" | uses=").append(s.remainingUses(i)).append("/").append(s.maxUses(i))
+                        .append(" | cooldown=").append(s.cooldownTime(i))
+                        .append(" | recharge=").append(s.rechargeTime(i))
+                        .append(" | startWithCooldown=").append(s.startWithCooldown(i))
+                        .append(" | cooldownMs=").append(Math.max(0L, s.cooldownUntilMs(i) - now))
                         .append("\n");
             }
 
+            sb.append("Tick: ").append(tickScheduler.describeStats()).append("\n");
+            sb.append("Input: ").append(packetFilter.describeStats()).append("\n");
+            sb.append("State: ").append(state.describeStats());
+
             ctx.sendMessage(Message.raw(sb.toString()));
         });
     }
@@ -6,101 +6,249 @@ import java.util.*;
 
 /**
  * Dispatcher that supports:
- * 1) Local ability handlers (IAbilityPlugin)  [same as before]
+ * 1) Ability handlers registered for the ids / id prefixes they own
  * 2) External command dispatch routes (exact id OR prefix)
+ * 3) Legacy handlers (IAbilityPlugin via register) that are asked in order,
+ *    only with -Dhca.legacyDispatch=true
+ *
+ * Registration rebuilds an immutable routing table (id map + prefix tries) and
+ * publishes it in one write, so a dispatch is a map get and a trie walk no matter
+ * how many mods have registered.
  */
 public final class AbilityDispatch {
 
+    // Opt-in: ask every registered IAbilityPlugin (and through HCA_DoAbility the
+    // reflective external chain) when nothing in the table claims the id.
+    private static final boolean LEGACY_DISPATCH = Boolean.getBoolean("hca.legacyDispatch");
+
+    // ----- registration (guarded by AbilityDispatch.class) -----
+
+    // undeclared handlers, legacy fallback only
     private static final List<IAbilityPlugin> plugins = new ArrayList<>();
 
-    // exact abilityId -> command template
-    private static final Map<String, String> exactCommandRoutes = new HashMap<>();
+    // exact abilityId -> handler
+    private static final Map<String, IAbilityPlugin> exactHandlers = new LinkedHashMap<>();
+
+    // abilityId prefix -> handler, insertion order decides overlaps
+    private static final Map<String, IAbilityPlugin> prefixHandlers = new LinkedHashMap<>();
+
+    // hooks found by ExternalExecutorChain, replaced as a whole on every discover();
+    // layered under the two maps above, so they never shadow a direct registration
+    private static Map<String, IAbilityPlugin> discoveredHandlers = Map.of();
+    private static Map<String, IAbilityPlugin> discoveredPrefixHandlers = Map.of();
+
+    // exact abilityId -> compiled command template
+    private static final Map<String, CommandDispatch.Template> exactCommandRoutes = new HashMap<>();
+
+    // prefix -> compiled command template, insertion order decides overlaps
+    private static final Map<String, CommandDispatch.Template> prefixCommandRoutes = new LinkedHashMap<>();
+
+    // ----- published -----
+
+    private static final class Routes {
+        static final Routes EMPTY = new Routes(Map.of(), new PrefixTrie<>(), Map.of(), new PrefixTrie<>(), List.of());
+
+        final Map<String, IAbilityPlugin> handlers;
+        final PrefixTrie<IAbilityPlugin> handlerPrefixes;
+        final Map<String, CommandDispatch.Template> commands;
+        final PrefixTrie<CommandDispatch.Template> commandPrefixes;
+        final IAbilityPlugin[] legacy;
+
+        Routes(Map<String, IAbilityPlugin> handlers,
+               PrefixTrie<IAbilityPlugin> handlerPrefixes,
+               Map<String, CommandDispatch.Template> commands,
+               PrefixTrie<CommandDispatch.Template> commandPrefixes,
+               List<IAbilityPlugin> legacy) {
+            this.handlers = handlers;
+            this.handlerPrefixes = handlerPrefixes;
+            this.commands = commands;
+            this.commandPrefixes = commandPrefixes;
+            this.legacy = legacy.toArray(new IAbilityPlugin[0]);
+        }
+    }
 
-    // prefix routes checked in insertion order
-    private static final List<PrefixRoute> prefixRoutes = new ArrayList<>();
+    private static volatile Routes routes = Routes.EMPTY;
 
     private AbilityDispatch() {}
 
     // -------------------------
-    // Local handlers (existing)
+    // Ability handlers
     // -------------------------
 
-    public static void register(IAbilityPlugin plugin) {
+    /**
+     * Legacy handler that does not say which ids it owns. Only consulted when
+     * -Dhca.legacyDispatch=true; prefer {@link #registerAbility} / {@link #registerAbilityPrefix}.
+     */
+    public static synchronized void register(IAbilityPlugin plugin) {
         if (plugin == null) return;
+        refuseCompactModeForOtherMods(plugin);
         plugins.add(plugin);
+        publish();
+    }
+
+    /** Exact match: abilityId (as written in the weapon json) -> handler. Last registration wins. */
+    public static synchronized void registerAbility(String abilityId, IAbilityPlugin handler) {
+        if (abilityId == null || abilityId.isBlank() || handler == null) return;
+        refuseCompactModeForOtherMods(handler);
+
+        exactHandlers.put(abilityId.trim(), handler);
+        publish();
+    }
+
+    /** Prefix match: any abilityId starting with prefix goes to handler (e.g. "mymod:"). */
+    public static synchronized void registerAbilityPrefix(String abilityIdPrefix, IAbilityPlugin handler) {
+        if (abilityIdPrefix == null || abilityIdPrefix.isBlank() || handler == null) return;
+        refuseCompactModeForOtherMods(handler);
+
+        prefixHandlers.put(abilityIdPrefix.trim(), handler);
+        publish();
+    }
+
+    // Handlers loaded by another mod's class loader belong to that mod
+    private static void refuseCompactModeForOtherMods(IAbilityPlugin handler) {
+        if (handler.getClass().getClassLoader() != AbilityDispatch.class.getClassLoader()) {
+            AbilityHotbarState.refuseCompactModeFor(handler.getClass().getName());
+        }
+    }
+
+    /**
+     * Replaces all discovered external hooks in a single publish. They sit under the direct
+     * registrations: an id or prefix registered through {@link #registerAbility} /
+     * {@link #registerAbilityPrefix} (e.g. a built-in) keeps its handler, and discovered
+     * prefixes only come after the direct ones in overlap order.
+     */
+    static synchronized void replaceDiscovered(
+            Map<String, IAbilityPlugin> exact,
+            Map<String, IAbilityPlugin> prefixes
+    ) {
+        discoveredHandlers = trimmed(exact);
+        discoveredPrefixHandlers = trimmed(prefixes);
+        publish();
+    }
+
+    private static Map<String, IAbilityPlugin> trimmed(Map<String, IAbilityPlugin> in) {
+        Map<String, IAbilityPlugin> out = new LinkedHashMap<>();
+        in.forEach((id, handler) -> {
+            if (id != null && !id.isBlank() && handler != null) out.put(id.trim(), handler);
+        });
+        return out;
     }
 
     // -------------------------
     // External dispatch routes
     // -------------------------
 
-    /** Exact match: abilityId -> command template */
-    public static void registerCommandRouteExact(String abilityId, String commandTemplate) {
+    /** Exact match: abilityId -> command template (compiled here, once) */
+    public static synchronized void registerCommandRouteExact(String abilityId, String commandTemplate) {
         if (abilityId == null || abilityId.isBlank()) return;
         if (commandTemplate == null || commandTemplate.isBlank()) return;
 
-        exactCommandRoutes.put(ItemIdUtil.normalizeItemId(abilityId), commandTemplate);
+        exactCommandRoutes.put(ItemIdUtil.canonicalItemId(abilityId), CommandDispatch.compile(commandTemplate));
+        publish();
     }
 
     /** Prefix match: anything that starts with prefix routes to command template */
-    public static void registerCommandRoutePrefix(String abilityIdPrefix, String commandTemplate) {
+    public static synchronized void registerCommandRoutePrefix(String abilityIdPrefix, String commandTemplate) {
         if (abilityIdPrefix == null || abilityIdPrefix.isBlank()) return;
         if (commandTemplate == null || commandTemplate.isBlank()) return;
 
-        prefixRoutes.add(new PrefixRoute(abilityIdPrefix, commandTemplate));
+        String prefix = ItemIdUtil.canonicalItemId(abilityIdPrefix);
+        if (prefix == null) return;
+
+        // first registration keeps its position, like the old list scan
+        prefixCommandRoutes.putIfAbsent(prefix, CommandDispatch.compile(commandTemplate));
+        publish();
+    }
+
+    private static void publish() {
+        Map<String, IAbilityPlugin> handlers = new HashMap<>(discoveredHandlers);
+        handlers.putAll(exactHandlers);
+
+        PrefixTrie<IAbilityPlugin> handlerTrie = new PrefixTrie<>();
+        prefixHandlers.forEach(handlerTrie::put);
+        discoveredPrefixHandlers.forEach((prefix, handler) -> {
+            if (!prefixHandlers.containsKey(prefix)) handlerTrie.put(prefix, handler);
+        });
+
+        PrefixTrie<CommandDispatch.Template> commandTrie = new PrefixTrie<>();
+        prefixCommandRoutes.forEach(commandTrie::put);
+
+        routes = new Routes(
+                Map.copyOf(handlers),
+                handlerTrie,
+                Map.copyOf(exactCommandRoutes),
+                commandTrie,
+                plugins
+        );
     }
 
+    // -------------------------
+    // Dispatch
+    // -------------------------
+
     /**
      * Full dispatch:
-     * 1) try local handlers
-     * 2) if not handled -> try external command dispatch
+     * 1) handler registered for the id, else for the earliest-registered matching prefix
+     * 2) (legacy only) every undeclared handler in order
+     * 3) external command dispatch
      */
     public static boolean dispatch(PackagedAbilityData data, AbilityContext context) {
-        // 1) local plugins
-        for (IAbilityPlugin plugin : plugins) {
-            try {
-                if (plugin.HCA_DoAbility(data, context)) return true;
-            } catch (Throwable t) {
-                if (context != null && context.PlayerRef != null) {
-                    context.PlayerRef.sendMessage(
-                            Message.raw("[HCA] Ability plugin error: " + t.getClass().getSimpleName())
-                    );
-                }
+        if (data == null || data.ID == null || data.ID.isBlank()) return false;
+
+        Routes r = routes;
+
+        // 1) declared handlers
+        IAbilityPlugin handler = r.handlers.get(data.ID);
+        if (handler == null) handler = r.handlerPrefixes.find(data.ID);
+        if (handler != null && runHandler(handler, data, context)) return true;
+
+        // 2) legacy "try everyone"
+        if (LEGACY_DISPATCH) {
+            for (IAbilityPlugin plugin : r.legacy) {
+                if (runHandler(plugin, data, context)) return true;
             }
         }
 
-        // 2) external command dispatch
-        return dispatchExternal(data, context);
+        // 3) external command dispatch
+        return dispatchExternal(r, data, context);
     }
 
-    private static boolean dispatchExternal(PackagedAbilityData data, AbilityContext ctx) {
-        if (data == null || ctx == null || data.ID == null || data.ID.isBlank()) return false;
+    private static boolean runHandler(IAbilityPlugin plugin, PackagedAbilityData data, AbilityContext context) {
+        try {
+            return plugin.HCA_DoAbility(data, context);
+        } catch (Throwable t) {
+            if (context != null && context.PlayerRef != null) {
+                context.PlayerRef.sendMessage(
+                        Message.raw("[HCA] Ability plugin error: " + t.getClass().getSimpleName())
+                );
+            }
+            return false;
+        }
+    }
 
-        String abilityId = ItemIdUtil.normalizeItemId(data.ID);
+    private static boolean dispatchExternal(Routes r, PackagedAbilityData data, AbilityContext ctx) {
+        if (ctx == null) return false;
+        if (r.commands.isEmpty() && r.commandPrefixes.size() == 0) return false;
+
+        String abilityId = ItemIdUtil.canonicalItemId(data.ID);
+        if (abilityId == null) return false;
 
         // exact
-        String cmd = exactCommandRoutes.get(abilityId);
-        if (cmd != null && !cmd.isBlank()) {
+        CommandDispatch.Template cmd = r.commands.get(abilityId);
+        if (cmd != null) {
             return CommandDispatch.tryRun(cmd, data, ctx);
         }
 
-        // prefix (in order)
-        for (PrefixRoute r : prefixRoutes) {
-            if (abilityId.startsWith(r.prefix)) {
-                return CommandDispatch.tryRun(r.commandTemplate, data, ctx);
-            }
+        // prefix (first registered wins)
+        cmd = r.commandPrefixes.find(abilityId);
+        if (cmd != null) {
+            return CommandDispatch.tryRun(cmd, data, ctx);
         }
 
         return false;
     }
 
-    private static final class PrefixRoute {
-        final String prefix;
-        final String commandTemplate;
-
-        PrefixRoute(String prefix, String commandTemplate) {
-            this.prefix = ItemIdUtil.normalizeItemId(prefix);
-            this.commandTemplate = commandTemplate;
-        }
+    static boolean isLegacyDispatch() {
+        return LEGACY_DISPATCH;
     }
 }
@@ -1,26 +1,83 @@
 package com.abilities.abilitiesplugin;
 
+import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.entity.entities.player.hud.CustomUIHud;
 import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
 
+/**
+ * Ability bar HUD.
+ *
+ * The first build appends the .ui file and sets every bar/cooldown widget.
+ * After that the same instance stays on the player and {@link #pushChanges()}
+ * only sends the widgets whose quantized level changed since the last send.
+ */
 public class AbilityHotbarHud extends CustomUIHud {
 
+    private static final int UNSENT = -1;
+
     private final AbilityHotbarState state;
 
+    // What the client currently shows (levels 0..BAR_STEPS, UNSENT before the first build)
+    private String builtUiPath = null;
+    private CooldownWidgetMode builtMode = CooldownWidgetMode.PARENT_ONLY;
+    private final int[] sentBarLevels = new int[9];
+    private final int[] sentCooldownLevels = new int[9];
+
     public AbilityHotbarHud(
             @Nonnull PlayerRef playerRef,
             @Nonnull AbilityHotbarState state
     ) {
         super(playerRef);
         this.state = state;
+        Arrays.fill(sentBarLevels, UNSENT);
+        Arrays.fill(sentCooldownLevels, UNSENT);
+    }
+
+    // -------------------------
+    // Entry points
+    // -------------------------
+
+    /** Full rebuild: use when a weapon gets bound or the bar is turned on. */
+    public static void show(Player player, PlayerRef playerRef, AbilityHotbarState state) {
+        if (player == null || playerRef == null || state == null) return;
+
+        var s = state.peek(playerRef);
+        if (s == null) return;
+        AbilityHotbarHud hud = new AbilityHotbarHud(playerRef, state);
+        s.hud = hud;
+        player.getHudManager().setCustomHud(playerRef, hud);
+    }
+
+    /**
+     * Incremental refresh: sends only changed widgets when the current HUD was built
+     * for the same .ui file, otherwise falls back to {@link #show}.
+     */
+    public static void refresh(Player player, PlayerRef playerRef, AbilityHotbarState state) {
+        if (player == null || playerRef == null || state == null) return;
+
+        var s = state.peek(playerRef);
+        if (s == null) return;
+        AbilityHotbarHud hud = s.hud;
+        if (hud == null || !hud.isBuiltFor(normalizeUiPath(s.abilityBarUiPath))) {
+            show(player, playerRef, state);
+            return;
+        }
+
+        hud.pushChanges();
     }
 
+    // -------------------------
+    // Full build
+    // -------------------------
+
     @Override
     protected void build(@Nonnull UICommandBuilder ui) {
-        var s = state.get(this.getPlayerRef().getUsername());
+        var s = state.peek(this.getPlayerRef());
+        if (s == null) return; // player already left
         HCA_AbilityApi.TickAllSlots(this.getPlayerRef());
 
 
@@ -28,29 +85,101 @@ public class AbilityHotbarHud extends CustomUIHud {
         ui.append(uiPath);
         CooldownWidgetMode cooldownMode = resolveCooldownWidgetMode(uiPath);
 
+        builtUiPath = uiPath;
+        builtMode = cooldownMode;
+
+        long now = System.currentTimeMillis();
         for (int i = 1; i <= 9; i++) {
-            applyUseBar(ui, i, s.hotbarRemainingUses[i - 1], s.hotbarMaxUses[i - 1]);
-            applyCooldownOverlay(ui, i, s, cooldownMode);
+            int barLevel = useBarLevel(s.remainingUses(i - 1), s.maxUses(i - 1));
+            int cooldownLevel = cooldownLevel(HCA_AbilityApi.getCooldownOverlayRatio(s, i - 1, now));
+
+            applyUseBar(ui, i, barLevel);
+            applyCooldownOverlay(ui, i, cooldownLevel, cooldownMode);
+
+            sentBarLevels[i - 1] = barLevel;
+            sentCooldownLevels[i - 1] = cooldownLevel;
         }
     }
 
-    private static final int BAR_STEPS = 10;
+    // -------------------------
+    // Delta update
+    // -------------------------
+
+    boolean isBuiltFor(String normalizedUiPath) {
+        return builtUiPath != null && builtUiPath.equals(normalizedUiPath);
+    }
 
-    private void applyUseBar(UICommandBuilder ui, int barIndex1to9, int remaining, int max) {
-        int level;
+    /** Sends only slots whose bar or cooldown level changed. Returns true if anything was sent. */
+    public boolean pushChanges() {
+        if (builtUiPath == null) return false;
+
+        var s = state.peek(this.getPlayerRef());
+        if (s == null) return false;
+        HCA_AbilityApi.TickAllSlots(this.getPlayerRef());
+
+        long now = System.currentTimeMillis();
+        UICommandBuilder ui = null;
 
+        for (int i = 1; i <= 9; i++) {
+            int idx = i - 1;
+            int barLevel = useBarLevel(s.remainingUses(idx), s.maxUses(idx));
+            int cooldownLevel = cooldownLevel(HCA_AbilityApi.getCooldownOverlayRatio(s, idx, now));
+
+            if (barLevel != sentBarLevels[idx]) {
+                if (ui == null) ui = new UICommandBuilder();
+                ui.set("#Bar" + i + sentBarLevels[idx] + ".Visible", false);
+                ui.set("#Bar" + i + barLevel + ".Visible", true);
+                sentBarLevels[idx] = barLevel;
+            }
+
+            if (cooldownLevel != sentCooldownLevels[idx]) {
+                if (ui == null) ui = new UICommandBuilder();
+                updateCooldownOverlay(ui, i, sentCooldownLevels[idx], cooldownLevel, builtMode);
+                sentCooldownLevels[idx] = cooldownLevel;
+            }
+        }
+
+        if (ui == null) return false;
+
+        update(false, ui);
+        return true;
+    }
+
+    // -------------------------
+    // Quantization
+    // -------------------------
+
+    private static final int BAR_STEPS = 10;
+
+    private static int useBarLevel(int remaining, int max) {
         if (max <= 0) {
             // Unlimited -> show 100
-            level = BAR_STEPS;
-        } else if (remaining <= 0) {
-            level = 0;
-        } else {
-            float ratio = Math.min(1.0f, (float) remaining / (float) max);
-            level = Math.round(ratio * BAR_STEPS);
-            if (level < 0) level = 0;
-            if (level > BAR_STEPS) level = BAR_STEPS;
+            return BAR_STEPS;
         }
+        if (remaining <= 0) return 0;
+
+        float ratio = Math.min(1.0f, (float) remaining / (float) max);
+        int level = Math.round(ratio * BAR_STEPS);
+        if (level < 0) level = 0;
+        if (level > BAR_STEPS) level = BAR_STEPS;
+        return level;
+    }
+
+    /** 0 = no cooldown, 1..BAR_STEPS = remaining cooldown segments. */
+    private static int cooldownLevel(float ratio) {
+        if (ratio <= 0.0f) return 0;
 
+        int level = (int) Math.ceil(ratio * BAR_STEPS);
+        if (level < 1) level = 1;
+        if (level > BAR_STEPS) level = BAR_STEPS;
+        return level;
+    }
+
+    // -------------------------
+    // Widget writes
+    // -------------------------
+
+    private void applyUseBar(UICommandBuilder ui, int barIndex1to9, int level) {
         // Hide Bar{slot}{0..10}
         for (int i = 0; i <= BAR_STEPS; i++) {
             ui.set("#Bar" + barIndex1to9 + i + ".Visible", false);
@@ -60,13 +189,9 @@ public class AbilityHotbarHud extends CustomUIHud {
         ui.set("#Bar" + barIndex1to9 + level + ".Visible", true);
     }
 
-    private void applyCooldownOverlay(UICommandBuilder ui, int slot1to9, AbilityHotbarState.State s, CooldownWidgetMode mode) {
-        int idx = slot1to9 - 1;
-        long now = System.currentTimeMillis();
-        float ratio = HCA_AbilityApi.getCooldownOverlayRatio(s, idx, now);
-
+    private void applyCooldownOverlay(UICommandBuilder ui, int slot1to9, int level, CooldownWidgetMode mode) {
         if (mode == CooldownWidgetMode.PARENT_ONLY) {
-            ui.set("#CD" + slot1to9 + ".Visible", ratio > 0.0f);
+            ui.set("#CD" + slot1to9 + ".Visible", level > 0);
             return;
         }
 
@@ -75,20 +200,37 @@ public class AbilityHotbarHud extends CustomUIHud {
             ui.set("#CD" + slot1to9 + step + ".Visible", false);
         }
 
-        if (ratio <= 0.0f) {
+        if (level <= 0) {
             ui.set("#CD" + slot1to9 + ".Visible", false);
             return;
         }
 
-        int level = (int) Math.ceil(ratio * BAR_STEPS);
-        if (level < 1) level = 1;
-        if (level > BAR_STEPS) level = BAR_STEPS;
-
         ui.set("#CD" + slot1to9 + ".Visible", true);
         ui.set("#CD" + slot1to9 + level + ".Visible", true);
     }
 
-    private static String normalizeUiPath(String uiPath) {
+    private void updateCooldownOverlay(UICommandBuilder ui, int slot1to9, int oldLevel, int newLevel, CooldownWidgetMode mode) {
+        if (mode == CooldownWidgetMode.PARENT_ONLY) {
+            if ((oldLevel > 0) != (newLevel > 0)) {
+                ui.set("#CD" + slot1to9 + ".Visible", newLevel > 0);
+            }
+            return;
+        }
+
+        if (oldLevel > 0) ui.set("#CD" + slot1to9 + oldLevel + ".Visible", false);
+
+        if ((oldLevel > 0) != (newLevel > 0)) {
+            ui.set("#CD" + slot1to9 + ".Visible", newLevel > 0);
+        }
+
+        if (newLevel > 0) ui.set("#CD" + slot1to9 + newLevel + ".Visible", true);
+    }
+
+    // -------------------------
+    // UI path helpers
+    // -------------------------
+
+    static String normalizeUiPath(String uiPath) {
         if (uiPath == null || uiPath.isBlank()) return "AbilityBar.ui";
 
         String cleaned = uiPath.trim().replace('\\', '/');
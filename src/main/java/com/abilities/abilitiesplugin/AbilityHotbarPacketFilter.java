@@ -2,6 +2,7 @@ package com.abilities.abilitiesplugin;
 
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.protocol.InteractionType;
 import com.hypixel.hytale.protocol.Packet;
 import com.hypixel.hytale.protocol.packets.interaction.SyncInteractionChain;
@@ -19,22 +20,36 @@ import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.concurrent.CompletableFuture;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
 
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
     private final AbilityHotbarState state;
     private final AbilitySystem abilitySystem;
+    private final AbilityTickScheduler tickScheduler;
+
+    // players with an attach task queued (one per player at a time)
+    private final Set<UUID> attaching = ConcurrentHashMap.newKeySet();
 
     public AbilityHotbarPacketFilter(
             AbilityHotbarState state,
-            AbilitySystem abilitySystem
+            AbilitySystem abilitySystem,
+            AbilityTickScheduler tickScheduler
     ) {
         this.state = state;
         this.abilitySystem = abilitySystem;
+        this.tickScheduler = tickScheduler;
     }
 
     private static final class EmptyHud extends CustomUIHud {
@@ -42,51 +57,177 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
         @Override protected void build(@Nonnull UICommandBuilder ui) {}
     }
 
+    // ----------------------------
+    // Stats
+    // ----------------------------
+
+    // The filter used to block the network thread this long waiting for these world tasks.
+    private static final long OLD_TOGGLE_WAIT_NS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long OLD_DROP_WAIT_NS = TimeUnit.MILLISECONDS.toNanos(150);
+
+    private final AtomicLong toggleTasks = new AtomicLong();
+    private final AtomicLong toggleTasksSlow = new AtomicLong();
+    private final AtomicLong staleToggles = new AtomicLong();
+    private final AtomicLong dropFlushes = new AtomicLong();
+    private final AtomicLong dropFlushesSlow = new AtomicLong();
+    private final AtomicLong pressesAccepted = new AtomicLong();
+    private final AtomicLong pressesOnCooldown = new AtomicLong();
+    private final AtomicLong pressesRateLimited = new AtomicLong();
+    private final AtomicLong worldActions = new AtomicLong();
+    private final AtomicLong worldTasks = new AtomicLong();
+
+    /** Queues a world-thread action for this player; see WorldMailbox. */
+    private void post(WorldMailbox mailbox, Runnable action) {
+        worldActions.incrementAndGet();
+        if (mailbox.post(action)) worldTasks.incrementAndGet();
+    }
+
+    private static void noteQueueDelay(long queuedNs, long oldWaitNs, AtomicLong total, AtomicLong slow) {
+        total.incrementAndGet();
+        if (System.nanoTime() - queuedNs > oldWaitNs) slow.incrementAndGet();
+    }
+
+    /** "slow" = world tasks that started later than the old blocking wait would have allowed. */
+    public String describeStats() {
+        return "toggles=" + toggleTasks.get()
+                + " togglesOver250ms=" + toggleTasksSlow.get()
+                + " togglesPassedOn=" + staleToggles.get()
+                + " dropFlushes=" + dropFlushes.get()
+                + " dropFlushesOver150ms=" + dropFlushesSlow.get()
+                + " presses=" + pressesAccepted.get()
+                + " pressesOnCooldown=" + pressesOnCooldown.get()
+                + " pressesRateLimited=" + pressesRateLimited.get()
+                + " worldActions=" + worldActions.get()
+                + " worldTasks=" + worldTasks.get();
+    }
+
+    // ----------------------------
+    // Press admission
+    // ----------------------------
+
+    // Per player: sustained ability presses per second, and how many may come at once.
+    // -Dhca.pressesPerSecond=0 turns the limit off.
+    private static final int PRESSES_PER_SECOND = Math.max(0, Integer.getInteger("hca.pressesPerSecond", 20));
+    private static final int PRESS_BURST = Math.max(1, Integer.getInteger("hca.pressBurst", 10));
+
+    /**
+     * Packet thread. Returns true if the press should be handed to the world thread. Otherwise
+     * it is answered here (client told to stay on originalSlot) and no world work is scheduled.
+     */
+    private boolean admitPress(PlayerRef playerRef, AbilityHotbarState.State s, int pressed0to8, int originalSlot) {
+        // Without a known slot to send the client back to, let the world thread handle it.
+        if (originalSlot < 0 || originalSlot > 8) {
+            pressesAccepted.incrementAndGet();
+            return true;
+        }
+
+        long nowMs = System.currentTimeMillis();
+        if (!takePressToken(s)) {
+            pressesRateLimited.incrementAndGet();
+        } else if (nowMs < s.inputReadyAtMs.get(pressed0to8)) {
+            pressesOnCooldown.incrementAndGet();
+        } else {
+            pressesAccepted.incrementAndGet();
+            return true;
+        }
+
+        // The packet is consumed, so the server slot never moved; only the client needs correcting.
+        s.suppressNextSetActiveSlot = originalSlot;
+        s.suppressNextSetActiveSlotUntilMs = nowMs + 250;
+        playerRef.getPacketHandler().write(new SetActiveSlot(Inventory.HOTBAR_SECTION_ID, originalSlot));
+        return false;
+    }
+
+    private static boolean takePressToken(AbilityHotbarState.State s) {
+        if (PRESSES_PER_SECOND == 0) return true;
+
+        long nowNs = System.nanoTime();
+        double tokens = s.pressTokens;
+        if (tokens < 0.0) {
+            tokens = PRESS_BURST;
+        } else {
+            double refill = (nowNs - s.pressTokensAtNs) * (PRESSES_PER_SECOND / 1_000_000_000.0);
+            tokens = Math.min(PRESS_BURST, tokens + refill);
+        }
+        s.pressTokensAtNs = nowNs;
+
+        if (tokens < 1.0) {
+            s.pressTokens = tokens;
+            return false;
+        }
+        s.pressTokens = tokens - 1.0;
+        return true;
+    }
+
+    // ----------------------------
+    // Filter
+    // ----------------------------
+
+    /**
+     * Runs on the network thread and never waits on the world. Decisions come from the
+     * player's published InputView; anything that needs the world is queued and left to run.
+     */
     @Override
     public boolean test(@Nonnull PlayerRef playerRef, @Nonnull Packet packet) {
 
-        var s = state.get(playerRef.getUsername());
-
         Ref<EntityStore> ref = playerRef.getReference();
         if (ref == null || !ref.isValid()) return false;
 
         Store<EntityStore> store = ref.getStore();
         World world = store.getExternalData().getWorld();
-        long now = System.currentTimeMillis();
 
-        // Keep HUD live-updating while enabled so cooldown overlays animate and recharges show up.
-        if (s.enabled && now >= s.nextHudRefreshAtMs) {
-            s.nextHudRefreshAtMs = now + 100L;
-            world.execute(() -> {
-                Player player = store.getComponent(ref, Player.getComponentType());
-                if (player == null) return;
+        var s = state.peek(playerRef);
+        if (s == null) {
+            // No state yet: one world task attaches it and publishes a view; until then
+            // nothing is consumed. Never created from here, so a late packet can't resurrect it.
+            UUID id = playerRef.getUuid();
+            if (attaching.add(id)) {
+                world.execute(() -> attach(id, playerRef, store, ref));
+            }
+            return false;
+        }
+        AbilityHotbarState.InputView view = s.input;
 
-                var s2 = state.get(playerRef.getUsername());
-                if (!s2.enabled) return;
-                if (!abilitySystem.isHoldingBoundItem(playerRef, store, ref)) {
-                    abilitySystem.persistBoundRuntime(playerRef, store, ref, true);
-                    AbilityBarUtil.forceOff(state, player, playerRef);
-                    return;
-                }
+        // Everything below runs in posting order, batched into one world task per drain.
+        WorldMailbox mailbox = s.mailbox(world);
 
-                HCA_AbilityApi.TickAllSlots(playerRef);
-                player.getHudManager().setCustomHud(playerRef, new AbilityHotbarHud(playerRef, state));
-            });
+        // First packet from this player: have the world thread publish a view.
+        if (view == AbilityHotbarState.InputView.UNKNOWN) {
+            s.input = AbilityHotbarState.InputView.PENDING;
+            post(mailbox, () -> abilitySystem.publishInputView(playerRef, store, ref));
         }
 
-        // Pre-flush runtime before vanilla drop handling.
-        if (s.enabled && (packet instanceof DropItemStack || packet instanceof DropCreativeItem)) {
-            CompletableFuture<Void> flushed = new CompletableFuture<>();
-            world.execute(() -> {
+        boolean consumed = filter(playerRef, packet, store, ref, world, s, view, mailbox);
+
+        // Whatever the engine queues for this packet must run before our later actions
+        if (!consumed) mailbox.passedOn();
+        return consumed;
+    }
+
+    private boolean filter(
+            PlayerRef playerRef,
+            Packet packet,
+            Store<EntityStore> store,
+            Ref<EntityStore> ref,
+            World world,
+            AbilityHotbarState.State s,
+            AbilityHotbarState.InputView view,
+            WorldMailbox mailbox
+    ) {
+        // HUD refresh / cooldown expiry / persistence are driven by AbilityTickScheduler.
+
+        // Pre-flush runtime before vanilla drop handling. Queued before the packet is passed
+        // on, so it runs ahead of the drop's own world-thread handling.
+        if (view.enabled && (packet instanceof DropItemStack || packet instanceof DropCreativeItem)) {
+            long queuedNs = System.nanoTime();
+            post(mailbox, () -> {
+                noteQueueDelay(queuedNs, OLD_DROP_WAIT_NS, dropFlushes, dropFlushesSlow);
                 if (abilitySystem.isHoldingBoundItem(playerRef, store, ref)) {
                     abilitySystem.persistBoundRuntime(playerRef, store, ref, true);
                 }
-                flushed.complete(null);
+                // the hotbar contents just changed
+                abilitySystem.publishInputView(playerRef, store, ref);
             });
-            try {
-                flushed.get(150, TimeUnit.MILLISECONDS);
-            } catch (Exception ignored) {
-            }
             return false;
         }
 
@@ -98,10 +239,11 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
             for (SyncInteractionChain chain : chains.updates) {
                 if (!chain.initial) continue;
 
-                if (s.enabled && (chain.interactionType == InteractionType.Use || chain.interactionType == InteractionType.Ability1)) {
-                    world.execute(() -> {
+                // Coalesced; the forced flushes are unbind / drop / disconnect
+                if (view.enabled && chain.interactionType == InteractionType.Use) {
+                    post(mailbox, () -> {
                         if (abilitySystem.isHoldingBoundItem(playerRef, store, ref)) {
-                            abilitySystem.persistBoundRuntime(playerRef, store, ref, true);
+                            abilitySystem.persistBoundRuntime(playerRef, store, ref, false);
                         }
                     });
                 }
@@ -110,47 +252,30 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
                 // Ability1 (Q): toggle bar
                 // -------------------------
                 if (chain.interactionType.name().equalsIgnoreCase("Ability1")) {
-                    CompletableFuture<Boolean> handled = new CompletableFuture<>();
-                    world.execute(() -> {
-                        Player player = store.getComponent(ref, Player.getComponentType());
-                        if (player == null) {
-                            handled.complete(false);
-                            return;
-                        }
-
-                        var s2 = state.get(playerRef.getUsername());
-
-                        if (s2.enabled) {
-                            abilitySystem.persistBoundRuntime(playerRef, store, ref, true);
-                            s2.enabled = false;
-                            player.getHudManager().setCustomHud(playerRef, new EmptyHud(playerRef));
-                            handled.complete(true);
-                            return;
-                        }
-
-                        boolean hasBar = abilitySystem.refreshFromHeldWeapon(playerRef, store, ref);
-                        if (!hasBar) {
-                            handled.complete(false);
-                            return;
-                        }
-
-                        s2.enabled = true;
-                        player.getHudManager().setCustomHud(playerRef, new AbilityHotbarHud(playerRef, state));
-                        handled.complete(true);
+                    // Consume when the bar is on, or the held item (as last published) has one.
+                    // The toggle itself re-checks the real held item on the world thread.
+                    boolean consume = view.heldHasBar(s.inputActiveSlot);
+
+                    long queuedNs = System.nanoTime();
+                    post(mailbox, () -> {
+                        noteQueueDelay(queuedNs, OLD_TOGGLE_WAIT_NS, toggleTasks, toggleTasksSlow);
+                        toggleBar(playerRef, store, ref, consume);
                     });
 
-                    try {
-                        return handled.get(250, TimeUnit.MILLISECONDS);
-                    } catch (Exception ignored) {
-                        return false;
-                    }
+                    return consume;
                 }
 
                 // ---------------------------------------------------
                 // SwapFrom: this is the REAL hotbar swap interaction
                 // Intercept it while bar is enabled to prevent swapping
                 // ---------------------------------------------------
-                if (!s.enabled) continue;
+                if (!view.enabled) {
+                    if (chain.interactionType == InteractionType.SwapFrom && chain.data != null) {
+                        int target = chain.data.targetSlot;
+                        if (target >= 0 && target <= 8) s.inputActiveSlot = target;
+                    }
+                    continue;
+                }
 
                 if (chain.interactionType == InteractionType.SwapFrom && chain.data != null) {
                     int original = chain.activeHotbarSlot;
@@ -161,13 +286,19 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
 
                     int slot1to9 = target + 1;
 
+                    // Echoes of our own correction go through as before (the world task drops them).
+                    boolean echo = System.currentTimeMillis() <= s.suppressNextSetActiveSlotUntilMs
+                            && target == s.suppressNextSetActiveSlot;
+                    if (!echo && !admitPress(playerRef, s, target, original)) return true;
+
                     // Do everything on world thread
                     int finalOriginal = original;
-                    world.execute(() -> {
+                    post(mailbox, () -> {
                         Player player = store.getComponent(ref, Player.getComponentType());
                         if (player == null) return;
 
-                        var s2 = state.get(playerRef.getUsername());
+                        var s2 = state.peek(playerRef);
+                        if (s2 == null) return; // left since the packet
 
                         // If this SwapFrom is our own correction echo, ignore it
                         long nowMsSwap = System.currentTimeMillis();
@@ -179,6 +310,7 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
 
                         // Force server slot back to original (prevents actual item swap)
                         player.getInventory().setActiveHotbarSlot((byte) finalOriginal);
+                        s2.inputActiveSlot = finalOriginal;
 
                         // Suppress the echo from the correction packet
                         s2.suppressNextSetActiveSlot = finalOriginal;
@@ -205,27 +337,20 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
         // =========================================================
         if (packet instanceof SetActiveSlot set) {
 
-            if (!s.enabled) return false;
-
-            int incomingSection = readInt(set,
-                    "getSection", "section",
-                    "getSectionId", "sectionId",
-                    "getInventorySectionId", "inventorySectionId",
-                    "getSectionID", "sectionID"
-            );
-
-            int incomingSlot = readInt(set,
-                    "getSlot", "slot",
-                    "getActiveSlot", "activeSlot",
-                    "getSelectedSlot", "selectedSlot",
-                    "getTargetSlot", "targetSlot"
-            );
+            int incomingSection = SECTION_READERS.get(set.getClass()).read(set);
+            int incomingSlot = SLOT_READERS.get(set.getClass()).read(set);
 
             if (incomingSection == Integer.MIN_VALUE || incomingSlot == Integer.MIN_VALUE) return false;
 
             if (incomingSection != Inventory.HOTBAR_SECTION_ID) return false;
             if (incomingSlot < 0 || incomingSlot > 8) return false;
 
+            if (!view.enabled) {
+                // normal slot change; remember it for the next Ability1 decision
+                s.inputActiveSlot = incomingSlot;
+                return false;
+            }
+
             long nowMsSuppress = System.currentTimeMillis();
             if (nowMsSuppress <= s.suppressNextSetActiveSlotUntilMs && incomingSlot == s.suppressNextSetActiveSlot) {
                 s.suppressNextSetActiveSlot = -1;
@@ -233,13 +358,16 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
                 return true;
             }
 
+            if (!admitPress(playerRef, s, incomingSlot, s.inputActiveSlot)) return true;
+
             final int pressed0to8 = incomingSlot;
 
-            world.execute(() -> {
+            post(mailbox, () -> {
                 Player player = store.getComponent(ref, Player.getComponentType());
                 if (player == null) return;
 
-                var s2 = state.get(playerRef.getUsername());
+                var s2 = state.peek(playerRef);
+                if (s2 == null) return; // left since the packet
 
                 int original = player.getInventory().getActiveHotbarSlot();
                 if (original < 0 || original > 8) original = 0;
@@ -249,6 +377,7 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
                 s2.suppressNextSetActiveSlotUntilMs = System.currentTimeMillis() + 250;
 
                 player.getInventory().setActiveHotbarSlot((byte) original);
+                s2.inputActiveSlot = original;
                 playerRef.getPacketHandler().write(new SetActiveSlot(Inventory.HOTBAR_SECTION_ID, original));
 
                 int slot1to9 = pressed0to8 + 1;
@@ -261,38 +390,172 @@ public class AbilityHotbarPacketFilter implements PlayerPacketFilter {
         return false;
     }
 
-    private static int readInt(Object obj, String... candidates) {
-        if (obj == null) return Integer.MIN_VALUE;
-        Class<?> c = obj.getClass();
+    /** World thread: first contact with a player that has no state. */
+    private void attach(UUID id, PlayerRef playerRef, Store<EntityStore> store, Ref<EntityStore> ref) {
+        attaching.remove(id);
+        if (!ref.isValid()) return;
+        if (state.attach(playerRef) == null) return;
+        abilitySystem.publishInputView(playerRef, store, ref);
+    }
 
-        // methods
-        for (String name : candidates) {
-            try {
-                Method m = c.getMethod(name);
-                Object r = m.invoke(obj);
-                if (r instanceof Number n) return n.intValue();
-            } catch (Throwable ignored) {}
+    /**
+     * World thread: Ability1 pressed. Turns the bar off, or on if the held item has one.
+     *
+     * {@code consumed} is what the filter decided from the published view. If the press was
+     * passed on (the view was stale, e.g. the bar item was picked up, given or moved since),
+     * vanilla Ability1 already ran, so the bar is not turned on as well; the view is
+     * republished and the next press is consumed.
+     */
+    private void toggleBar(PlayerRef playerRef, Store<EntityStore> store, Ref<EntityStore> ref, boolean consumed) {
+        if (!ref.isValid()) return;
+
+        Player player = store.getComponent(ref, Player.getComponentType());
+        if (player == null) return;
+
+        var s2 = state.peek(playerRef);
+        if (s2 == null) return; // left since the packet
+
+        if (s2.enabled) {
+            abilitySystem.persistBoundRuntime(playerRef, store, ref, true);
+            s2.enabled = false;
+            s2.hud = null;
+            s2.publishInput();
+            player.getHudManager().setCustomHud(playerRef, new EmptyHud(playerRef));
+            return;
+        }
+
+        if (!consumed) {
+            abilitySystem.publishInputView(playerRef, store, ref);
+            staleToggles.incrementAndGet();
+            return;
+        }
+
+        // publishes the InputView either way
+        boolean hasBar = abilitySystem.refreshFromHeldWeapon(playerRef, store, ref);
+        if (!hasBar) return;
+
+        s2.enabled = true;
+        s2.publishInput();
+        AbilityHotbarHud.show(player, playerRef, state);
+        tickScheduler.track(playerRef);
+    }
+
+    // ----------------------------
+    // SetActiveSlot field access
+    // ----------------------------
+
+    private static final String[] SECTION_NAMES = {
+            "getSection", "section",
+            "getSectionId", "sectionId",
+            "getInventorySectionId", "inventorySectionId",
+            "getSectionID", "sectionID"
+    };
+
+    private static final String[] SLOT_NAMES = {
+            "getSlot", "slot",
+            "getActiveSlot", "activeSlot",
+            "getSelectedSlot", "selectedSlot",
+            "getTargetSlot", "targetSlot"
+    };
+
+    // Resolved once per packet class; a class with no match caches MISSING.
+    private static final ClassValue<IntReader> SECTION_READERS = new ClassValue<>() {
+        @Override
+        protected IntReader computeValue(Class<?> type) {
+            return IntReader.resolve(type, SECTION_NAMES);
         }
+    };
+
+    private static final ClassValue<IntReader> SLOT_READERS = new ClassValue<>() {
+        @Override
+        protected IntReader computeValue(Class<?> type) {
+            return IntReader.resolve(type, SLOT_NAMES);
+        }
+    };
+
+    private static final class IntReader {
+        static final IntReader MISSING = new IntReader(null);
 
-        // public fields
-        for (String name : candidates) {
+        private static final MethodType READ_TYPE = MethodType.methodType(int.class, Object.class);
+        private static final MethodHandle NUMBER_TO_INT;
+
+        static {
             try {
-                Field f = c.getField(name);
-                Object r = f.get(obj);
-                if (r instanceof Number n) return n.intValue();
-            } catch (Throwable ignored) {}
+                NUMBER_TO_INT = MethodHandles.lookup().findStatic(
+                        IntReader.class, "numberToInt", MethodType.methodType(int.class, Number.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final MethodHandle handle; // (Object) int
+
+        private IntReader(MethodHandle handle) {
+            this.handle = handle;
         }
 
-        // declared fields
-        for (String name : candidates) {
+        int read(Object obj) {
+            if (handle == null || obj == null) return Integer.MIN_VALUE;
             try {
-                Field f = c.getDeclaredField(name);
-                f.setAccessible(true);
-                Object r = f.get(obj);
-                if (r instanceof Number n) return n.intValue();
-            } catch (Throwable ignored) {}
+                return (int) handle.invokeExact(obj);
+            } catch (Throwable ignored) {
+                return Integer.MIN_VALUE;
+            }
+        }
+
+        private static int numberToInt(Number n) {
+            return (n == null) ? Integer.MIN_VALUE : n.intValue();
+        }
+
+        /** Same search order as before: public methods, public fields, then declared fields. */
+        static IntReader resolve(Class<?> c, String[] candidates) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+            for (String name : candidates) {
+                try {
+                    MethodHandle h = asIntReader(lookup.unreflect(c.getMethod(name)));
+                    if (h != null) return new IntReader(h);
+                } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                }
+            }
+
+            for (String name : candidates) {
+                try {
+                    MethodHandle h = asIntReader(lookup.unreflectGetter(c.getField(name)));
+                    if (h != null) return new IntReader(h);
+                } catch (NoSuchFieldException | IllegalAccessException ignored) {
+                }
+            }
+
+            for (String name : candidates) {
+                try {
+                    Field f = c.getDeclaredField(name);
+                    if (Modifier.isStatic(f.getModifiers())) continue;
+                    f.setAccessible(true);
+                    MethodHandle h = asIntReader(lookup.unreflectGetter(f));
+                    if (h != null) return new IntReader(h);
+                } catch (NoSuchFieldException | IllegalAccessException | RuntimeException ignored) {
+                }
+            }
+
+            LOGGER.atWarning().log("[HCA] No %s accessor on %s, ignoring it", candidates[1], c.getName());
+            return MISSING;
         }
 
-        return Integer.MIN_VALUE;
+        // Numeric results only, like the old instanceof Number check.
+        private static MethodHandle asIntReader(MethodHandle h) {
+            if (h.type().parameterCount() != 1) return null;
+
+            Class<?> t = h.type().returnType();
+            if (t.isPrimitive()) {
+                if (t == boolean.class || t == char.class || t == void.class) return null;
+                return MethodHandles.explicitCastArguments(h, READ_TYPE);
+            }
+            if (Number.class.isAssignableFrom(t)) {
+                return MethodHandles.filterReturnValue(
+                        h.asType(MethodType.methodType(Number.class, Object.class)), NUMBER_TO_INT);
+            }
+            return null;
+        }
     }
 }
@@ -1,37 +1,102 @@
 package com.abilities.abilitiesplugin;
 
-import java.util.HashMap;
-import java.util.Map;
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 
 public class AbilityHotbarState {
 
+    /**
+     * What the packet filter is allowed to know about a player. Built on the world thread
+     * and published whole, so the network thread can decide without waiting on the world.
+     */
+    static final class InputView {
+        static final InputView UNKNOWN = new InputView(false, 0, false, false);
+        static final InputView PENDING = new InputView(false, 0, false, false);
+
+        final boolean enabled;
+        // bit i set = hotbar slot i holds an item with an ability bar
+        final int hotbarBarMask;
+        final boolean usingTools;
+        final boolean toolHasBar;
+
+        InputView(boolean enabled, int hotbarBarMask, boolean usingTools, boolean toolHasBar) {
+            this.enabled = enabled;
+            this.hotbarBarMask = hotbarBarMask;
+            this.usingTools = usingTools;
+            this.toolHasBar = toolHasBar;
+        }
+
+        boolean isKnown() {
+            return this != UNKNOWN && this != PENDING;
+        }
+
+        /** Best guess at whether the held item has a bar, given the last hotbar slot seen. */
+        boolean heldHasBar(int activeHotbarSlot) {
+            if (enabled) return true;
+            if (usingTools) return toolHasBar;
+            return activeHotbarSlot >= 0 && activeHotbarSlot < 9 && (hotbarBarMask & (1 << activeHotbarSlot)) != 0;
+        }
+    }
+
+    // Storage mode for the per-slot data, fixed for the JVM (see SlotArena)
+    static final boolean COMPACT = SlotArena.ENABLED;
+    private static final SlotArena ARENA = SlotArena.shared();
+
+    /**
+     * Compact mode leaves the public State.hotbar* arrays null, and other mods' ability code
+     * may read them. So compact mode is refused as soon as another mod hooks into abilities
+     * (AbilityDispatch registrations, discovered doAbility hooks).
+     */
+    static void refuseCompactModeFor(String modClass) {
+        if (!COMPACT) return;
+        throw new IllegalStateException("-Dhca.compactSlots=true is not supported with other ability mods installed ("
+                + modClass + " hooks into abilities and may read the State.hotbar* arrays, which are null in compact mode)");
+    }
+
     public static final class State {
+        // Owner of this entry (set once on creation)
+        PlayerRef playerRef = null;
+
         public boolean enabled = false;
 
 
         public String abilityBarUiPath = null;
 
-        public final String[] hotbarItemIds = new String[9];
-        public final String[] hotbarRootInteractions = new String[9];
-
-        public final String[] hotbarAbilityIds = new String[9];
-        public final boolean[] hotbarPluginFlags = new boolean[9];
-        public final boolean[] hotbarConsumeFlags = new boolean[9];
-
-        public final int[] hotbarMaxUses = new int[9];
-        public final float[] hotbarPowerMultipliers = new float[9];
-        public final String[] hotbarIcons = new String[9];
-        public final int[] hotbarRemainingUses = new int[9];
-        public final int[] hotbarAbilityValues = new int[9];
-        public final float[] hotbarCooldownTimes = new float[9];
-        public final float[] hotbarRechargeTimes = new float[9];
-        public final boolean[] hotbarStartWithCooldown = new boolean[9];
-        public final long[] hotbarCooldownUntilMs = new long[9];
-        public final double[] hotbarRechargeAccumulatorSec = new double[9];
-        public final long[] hotbarLastUpdateMs = new long[9];
+        // Per-slot data. With -Dhca.compactSlots=true these arrays are null and the slots live
+        // in SlotArena instead (refused once other ability mods are installed, see
+        // refuseCompactModeFor); go through HCA_AbilityApi (or the accessors below) either way.
+        public final String[] hotbarItemIds = COMPACT ? null : new String[9];
+        public final String[] hotbarRootInteractions = COMPACT ? null : new String[9];
+
+        public final String[] hotbarAbilityIds = COMPACT ? null : new String[9];
+        public final boolean[] hotbarPluginFlags = COMPACT ? null : new boolean[9];
+        public final boolean[] hotbarConsumeFlags = COMPACT ? null : new boolean[9];
+
+        public final int[] hotbarMaxUses = COMPACT ? null : new int[9];
+        public final float[] hotbarPowerMultipliers = COMPACT ? null : new float[9];
+        public final String[] hotbarIcons = COMPACT ? null : new String[9];
+        public final int[] hotbarRemainingUses = COMPACT ? null : new int[9];
+        public final int[] hotbarAbilityValues = COMPACT ? null : new int[9];
+        public final float[] hotbarCooldownTimes = COMPACT ? null : new float[9];
+        public final float[] hotbarRechargeTimes = COMPACT ? null : new float[9];
+        public final boolean[] hotbarStartWithCooldown = COMPACT ? null : new boolean[9];
+        public final long[] hotbarCooldownUntilMs = COMPACT ? null : new long[9];
+        public final double[] hotbarRechargeAccumulatorSec = COMPACT ? null : new double[9];
+        public final long[] hotbarLastUpdateMs = COMPACT ? null : new long[9];
+        // Next "charge regained" time per slot (Long.MAX_VALUE = nothing pending)
+        public final long[] hotbarNextChargeAtMs = COMPACT ? null : new long[9];
+        // Per-slot string flags; a slot's list is only allocated once a flag is added
         @SuppressWarnings("unchecked")
         public final List<String>[] hotbarStringFlags = new ArrayList[9];
 
@@ -44,33 +109,77 @@ public class AbilityHotbarState {
 
         public int suppressNextSetActiveSlot = -1;
         public long suppressNextSetActiveSlotUntilMs = 0;
-        public long nextHudRefreshAtMs = 0;
         public long nextRuntimePersistAtMs = 0;
+        // bit i set = slot i's persisted runtime (id / remaining / cooldown) changed since the last write.
+        // World thread only (set by HCA_AbilityApi, cleared by AbilitySystem.persistRuntime)
+        int runtimeDirtyMask = 0;
         public boolean boundToTools = false;
         public int boundSlot = -1;
         public String boundItemId = null;
 
+        // Last immutable data/context handed to a plugin ability (world thread); see AbilitySystem.useSlot
+        PackagedAbilityData[] useData = null;
+        AbilityContext useContext = null;
+
+        // HUD instance currently shown for this player (null when the bar is off)
+        AbilityHotbarHud hud = null;
+        // Set by AbilityTimerWheel when a charge/cooldown event fired for this player
+        volatile boolean timerEventPending = false;
+        // This player's AbilityTimerWheel nodes (created and guarded by the wheel)
+        AbilityTimerWheel.Timer[] timerNodes = null;
+        // Snapshot for the packet thread; republished whenever enabled / the hotbar bars change
+        volatile InputView input = InputView.UNKNOWN;
+        // Active hotbar slot as last seen by the packet thread or the world thread
+        volatile int inputActiveSlot = -1;
+        // Per slot: epoch ms before which a press cannot fire (0 = no known block). Read by the
+        // packet thread's pre-check; may lag behind and say "ready" too early, never too late.
+        final AtomicLongArray inputReadyAtMs = new AtomicLongArray(9);
+        // Packet thread only: press token bucket (see AbilityHotbarPacketFilter)
+        double pressTokens = -1.0;
+        long pressTokensAtNs = 0L;
+        // World-thread actions posted by the packet filter (see WorldMailbox)
+        private volatile WorldMailbox worldMailbox = null;
+        // Compact mode: this player's slots are page.x[base .. base + 8]; -1 once released
+        private int arenaHandle = -1;
+        private SlotArena.Page page = null;
+        private int base = 0;
+
+        public State() {
+            if (COMPACT) {
+                arenaHandle = SlotArena.shared().allocate();
+                page = SlotArena.shared().page(arenaHandle);
+                base = SlotArena.base(arenaHandle);
+            }
+        }
+
+        /** World thread: republishes after enabled changed, keeping the last known bar layout. */
+        void publishInput() {
+            InputView v = input;
+            input = new InputView(enabled, v.hotbarBarMask, v.usingTools, v.toolHasBar);
+        }
+
         public void fillAllEmpty() {
             abilityBarUiPath = null;
 
             for (int i = 0; i < 9; i++) {
-                hotbarRootInteractions[i] = null;
-
-                hotbarAbilityIds[i] = null;
-                hotbarPluginFlags[i] = false;
-                hotbarConsumeFlags[i] = false;
-
-                hotbarMaxUses[i] = 0;
-                hotbarPowerMultipliers[i] = 1.0f;
-                hotbarIcons[i] = null;
-                hotbarRemainingUses[i] = 0;
-                hotbarCooldownTimes[i] = 0.3f;
-                hotbarRechargeTimes[i] = 1.0f;
-                hotbarStartWithCooldown[i] = true;
-                hotbarCooldownUntilMs[i] = 0L;
-                hotbarRechargeAccumulatorSec[i] = 0.0;
-                hotbarLastUpdateMs[i] = 0L;
-                hotbarStringFlags[i] = new ArrayList<>();
+                setRootInteraction(i, null);
+
+                setAbilityId(i, null);
+                setPluginFlag(i, false);
+                setConsumeFlag(i, false);
+
+                setMaxUses(i, 0);
+                setPowerMultiplier(i, 1.0f);
+                setIcon(i, null);
+                setRemainingUses(i, 0);
+                setCooldownTime(i, 0.3f);
+                setRechargeTime(i, 1.0f);
+                setStartWithCooldown(i, true);
+                setCooldownUntilMs(i, 0L);
+                setRechargeAccumulatorSec(i, 0.0);
+                setLastUpdateMs(i, 0L);
+                setNextChargeAtMs(i, Long.MAX_VALUE);
+                if (hotbarStringFlags[i] != null) hotbarStringFlags[i].clear();
 
             }
             selectedAbilitySlot = 1;
@@ -78,21 +187,241 @@ public class AbilityHotbarState {
             PlayerPowerMultiplierTemporaryActive = false;
             PlayerPowerMultiplierBeforeTemporary = 1.0f;
             PlayerPowerMultiplierTemporaryUntilMs = 0L;
-            nextHudRefreshAtMs = 0L;
             nextRuntimePersistAtMs = 0L;
+            runtimeDirtyMask = 0;
             boundToTools = false;
             boundSlot = -1;
             boundItemId = null;
+            useData = null;
+            useContext = null;
+            for (int i = 0; i < 9; i++) inputReadyAtMs.set(i, 0L);
+        }
+
+        /** Packet thread: this player's mailbox for the given world; retires the one for a previous world. */
+        WorldMailbox mailbox(World world) {
+            WorldMailbox m = worldMailbox;
+            if (m == null || m.world != world) {
+                if (m != null) m.retire();
+                m = new WorldMailbox(world);
+                worldMailbox = m;
+            }
+            return m;
+        }
+
+        void markRuntimeDirty(int idx) {
+            runtimeDirtyMask |= (1 << idx);
+        }
+
+        /**
+         * Drops this player's pending timer events and returns their arena slots (compact mode);
+         * a State must not be used afterwards.
+         */
+        void release() {
+            HCA_AbilityApi.timers().cancelAll(this);
+
+            if (arenaHandle < 0) return;
+            SlotArena.shared().release(arenaHandle);
+            arenaHandle = -1;
+            // Slot access after release now throws instead of reading the handle's next owner
+            page = null;
+            base = -1;
+        }
+
+        // ----------------------------
+        // Slot accessors (both storage modes)
+        // ----------------------------
+
+        String itemId(int i) { return COMPACT ? ARENA.string(page.itemIds[base + i]) : hotbarItemIds[i]; }
+        void setItemId(int i, String v) { if (COMPACT) page.itemIds[base + i] = ARENA.intern(v); else hotbarItemIds[i] = v; }
+
+        String rootInteraction(int i) { return COMPACT ? ARENA.string(page.rootInteractions[base + i]) : hotbarRootInteractions[i]; }
+        void setRootInteraction(int i, String v) { if (COMPACT) page.rootInteractions[base + i] = ARENA.intern(v); else hotbarRootInteractions[i] = v; }
+
+        String abilityId(int i) { return COMPACT ? ARENA.string(page.abilityIds[base + i]) : hotbarAbilityIds[i]; }
+        void setAbilityId(int i, String v) { if (COMPACT) page.abilityIds[base + i] = ARENA.intern(v); else hotbarAbilityIds[i] = v; }
+
+        String icon(int i) { return COMPACT ? ARENA.string(page.icons[base + i]) : hotbarIcons[i]; }
+        void setIcon(int i, String v) { if (COMPACT) page.icons[base + i] = ARENA.intern(v); else hotbarIcons[i] = v; }
+
+        /** Compact mode only: sets the four string slots from ids already interned in the arena. */
+        void setStringIds(int i, int itemId, int rootInteraction, int abilityId, int icon) {
+            page.itemIds[base + i] = itemId;
+            page.rootInteractions[base + i] = rootInteraction;
+            page.abilityIds[base + i] = abilityId;
+            page.icons[base + i] = icon;
+        }
+
+        boolean pluginFlag(int i) { return COMPACT ? flag(i, SlotArena.PLUGIN) : hotbarPluginFlags[i]; }
+        void setPluginFlag(int i, boolean v) { if (COMPACT) setFlag(i, SlotArena.PLUGIN, v); else hotbarPluginFlags[i] = v; }
+
+        boolean consumeFlag(int i) { return COMPACT ? flag(i, SlotArena.CONSUME) : hotbarConsumeFlags[i]; }
+        void setConsumeFlag(int i, boolean v) { if (COMPACT) setFlag(i, SlotArena.CONSUME, v); else hotbarConsumeFlags[i] = v; }
+
+        boolean startWithCooldown(int i) { return COMPACT ? flag(i, SlotArena.START_WITH_COOLDOWN) : hotbarStartWithCooldown[i]; }
+        void setStartWithCooldown(int i, boolean v) { if (COMPACT) setFlag(i, SlotArena.START_WITH_COOLDOWN, v); else hotbarStartWithCooldown[i] = v; }
+
+        int maxUses(int i) { return COMPACT ? page.maxUses[base + i] : hotbarMaxUses[i]; }
+        void setMaxUses(int i, int v) { if (COMPACT) page.maxUses[base + i] = v; else hotbarMaxUses[i] = v; }
+
+        int remainingUses(int i) { return COMPACT ? page.remainingUses[base + i] : hotbarRemainingUses[i]; }
+        void setRemainingUses(int i, int v) { if (COMPACT) page.remainingUses[base + i] = v; else hotbarRemainingUses[i] = v; }
+
+        int abilityValue(int i) { return COMPACT ? page.abilityValues[base + i] : hotbarAbilityValues[i]; }
+        void setAbilityValue(int i, int v) { if (COMPACT) page.abilityValues[base + i] = v; else hotbarAbilityValues[i] = v; }
+
+        float powerMultiplier(int i) { return COMPACT ? page.powerMultipliers[base + i] : hotbarPowerMultipliers[i]; }
+        void setPowerMultiplier(int i, float v) { if (COMPACT) page.powerMultipliers[base + i] = v; else hotbarPowerMultipliers[i] = v; }
+
+        float cooldownTime(int i) { return COMPACT ? page.cooldownTimes[base + i] : hotbarCooldownTimes[i]; }
+        void setCooldownTime(int i, float v) { if (COMPACT) page.cooldownTimes[base + i] = v; else hotbarCooldownTimes[i] = v; }
+
+        float rechargeTime(int i) { return COMPACT ? page.rechargeTimes[base + i] : hotbarRechargeTimes[i]; }
+        void setRechargeTime(int i, float v) { if (COMPACT) page.rechargeTimes[base + i] = v; else hotbarRechargeTimes[i] = v; }
+
+        long cooldownUntilMs(int i) { return COMPACT ? page.cooldownUntilMs[base + i] : hotbarCooldownUntilMs[i]; }
+        void setCooldownUntilMs(int i, long v) { if (COMPACT) page.cooldownUntilMs[base + i] = v; else hotbarCooldownUntilMs[i] = v; }
+
+        long lastUpdateMs(int i) { return COMPACT ? page.lastUpdateMs[base + i] : hotbarLastUpdateMs[i]; }
+        void setLastUpdateMs(int i, long v) { if (COMPACT) page.lastUpdateMs[base + i] = v; else hotbarLastUpdateMs[i] = v; }
+
+        long nextChargeAtMs(int i) { return COMPACT ? page.nextChargeAtMs[base + i] : hotbarNextChargeAtMs[i]; }
+        void setNextChargeAtMs(int i, long v) { if (COMPACT) page.nextChargeAtMs[base + i] = v; else hotbarNextChargeAtMs[i] = v; }
+
+        double rechargeAccumulatorSec(int i) { return COMPACT ? page.rechargeAccumulatorSec[base + i] : hotbarRechargeAccumulatorSec[i]; }
+        void setRechargeAccumulatorSec(int i, double v) { if (COMPACT) page.rechargeAccumulatorSec[base + i] = v; else hotbarRechargeAccumulatorSec[i] = v; }
+
+        private boolean flag(int i, byte bit) {
+            return (page.flags[base + i] & bit) != 0;
+        }
+
+        private void setFlag(int i, byte bit, boolean v) {
+            byte f = page.flags[base + i];
+            page.flags[base + i] = (byte) (v ? (f | bit) : (f & ~bit));
+        }
+
+        List<String> stringFlags(int idx) {
+            List<String> list = hotbarStringFlags[idx];
+            if (list == null) {
+                list = new ArrayList<>(2);
+                hotbarStringFlags[idx] = list;
+            }
+            return list;
         }
     }
 
-    private final Map<String, State> byUser = new HashMap<>();
+    // Keyed by player UUID; read from packet threads, world threads and the tick scheduler.
+    private final ConcurrentHashMap<UUID, State> byPlayer = new ConcurrentHashMap<>();
 
-    public State get(String username) {
-        return byUser.computeIfAbsent(username, k -> {
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+
+    // A player removed this recently is not re-attached by a late packet / world task.
+    private static final long DEPARTED_GRACE_MS = 5_000L;
+
+    // uuid -> removal time, pruned as it goes; only recent departures live here
+    private final ConcurrentHashMap<UUID, Long> departed = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the player's state, creating it on first access. Lock-free once the entry exists.
+     * Only for the explicit bind paths (toggle, bar bind); everything that may run after the
+     * player left uses {@link #peek} so it can't re-create the entry.
+     */
+    public State get(PlayerRef playerRef) {
+        UUID id = playerRef.getUuid();
+
+        State existing = byPlayer.get(id);
+        if (existing != null) return existing;
+
+        departed.remove(id);
+        return byPlayer.computeIfAbsent(id, k -> {
             State s = new State();
             s.fillAllEmpty();
+            s.playerRef = playerRef;
+            created.incrementAndGet();
             return s;
         });
     }
+
+    /**
+     * World thread, first contact from the packet filter: creates the state unless the player
+     * was removed in the last few seconds (a task queued before the disconnect). Null then.
+     */
+    State attach(PlayerRef playerRef) {
+        UUID id = playerRef.getUuid();
+
+        State existing = byPlayer.get(id);
+        if (existing != null) return existing;
+
+        Long removedAt = departed.get(id);
+        if (removedAt != null && System.currentTimeMillis() - removedAt < DEPARTED_GRACE_MS) return null;
+
+        return get(playerRef);
+    }
+
+    /**
+     * Looks a player up by name. Scans every online player's state (O(players)); nothing in
+     * HCA calls it any more.
+     *
+     * @deprecated state is keyed by UUID now; use {@link #get(PlayerRef)} (creates the entry, the
+     * old contract of this method) or {@link #peek(PlayerRef)}. Without a PlayerRef there is no
+     * UUID to key a new entry by, so unlike before this returns null for players without one.
+     */
+    @Deprecated
+    public State get(String username) {
+        if (username == null) return null;
+
+        for (State s : byPlayer.values()) {
+            PlayerRef ref = s.playerRef;
+            if (ref != null && username.equalsIgnoreCase(ref.getUsername())) return s;
+        }
+        return null;
+    }
+
+    /** Returns the player's state without creating one. */
+    public State peek(PlayerRef playerRef) {
+        if (playerRef == null) return null;
+        return byPlayer.get(playerRef.getUuid());
+    }
+
+    /** Drops the player's state (call on disconnect). */
+    public State remove(PlayerRef playerRef) {
+        if (playerRef == null) return null;
+
+        UUID id = playerRef.getUuid();
+        State s = byPlayer.remove(id);
+        if (s != null) removed.incrementAndGet();
+
+        long now = System.currentTimeMillis();
+        departed.values().removeIf(at -> now - at >= DEPARTED_GRACE_MS);
+        departed.put(id, now);
+        return s;
+    }
+
+    Collection<State> states() {
+        return byPlayer.values();
+    }
+
+    // ----------------------------
+    // Stats
+    // ----------------------------
+
+    /** live = entries whose player still has a valid entity, retained = the rest. */
+    public String describeStats() {
+        int live = 0;
+        int retained = 0;
+
+        for (State s : byPlayer.values()) {
+            Ref<EntityStore> ref = (s.playerRef == null) ? null : s.playerRef.getReference();
+            if (ref != null && ref.isValid()) live++;
+            else retained++;
+        }
+
+        return "entries=" + (live + retained)
+                + " live=" + live
+                + " retained=" + retained
+                + " created=" + created.get()
+                + " removed=" + removed.get()
+                + " departed=" + departed.size()
+                + (COMPACT ? " arena(" + ARENA.describeStats() + ")" : "");
+    }
 }
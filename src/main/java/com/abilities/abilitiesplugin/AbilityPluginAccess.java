@@ -15,10 +15,14 @@ public final class AbilityPluginAccess {
     }
 
 
+    /**
+     * The player's ability state, created on first access as it always was (never null).
+     * Don't call it for a player who already left: that would re-create their entry.
+     */
     public static AbilityHotbarState.State State(PlayerRef playerRef) {
         if (StateRef == null) {
             throw new IllegalStateException("AbilityPlugin not initialized");
         }
-        return StateRef.get(playerRef.getUsername());
+        return StateRef.get(playerRef);
     }
 }
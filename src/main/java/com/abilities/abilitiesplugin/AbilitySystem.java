@@ -10,19 +10,16 @@ import com.hypixel.hytale.server.core.inventory.transaction.ItemStackSlotTransac
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
-import org.bson.BsonArray;
 import org.bson.BsonDocument;
-import org.bson.BsonInt32;
-import org.bson.BsonInt64;
-import org.bson.BsonString;
-
-import java.util.List;
 
 public class AbilitySystem {
-    private static final String RUNTIME_META_KEY = "hca_ability_runtime";
-    private static final int RUNTIME_META_VERSION = 1;
+    private static final int ALL_SLOTS_DIRTY = (1 << 9) - 1;
+
+    // At most one unforced runtime write per player per interval (-Dhca.persistIntervalMs)
+    private static final long PERSIST_INTERVAL_MS = Math.max(0L, Long.getLong("hca.persistIntervalMs", 1000L));
 
-    private final WeaponRegistry weaponRegistry;
+    // Swapped wholesale by PackReloader; every bind reads one consistent registry.
+    private volatile WeaponRegistry weaponRegistry;
     private final AbilityHotbarState state;
     private final AbilityInteractionExecutor interactionExecutor;
 
@@ -48,9 +45,69 @@ public class AbilitySystem {
         this.interactionExecutor = interactionExecutor;
     }
 
+    public WeaponRegistry getWeaponRegistry() {
+        return weaponRegistry;
+    }
+
+    /** Publishes a freshly loaded registry. Already-bound bars keep their data until rebound. */
+    public void swapWeaponRegistry(WeaponRegistry newRegistry) {
+        if (newRegistry == null) return;
+        this.weaponRegistry = newRegistry;
+    }
+
+    /**
+     * World thread. The bind path, and with the toggle command the only place that creates a
+     * player's state; everything else uses peek so a late packet or task can't resurrect it.
+     */
     public boolean refreshFromHeldWeapon(PlayerRef playerRef, Store<EntityStore> store, Ref<EntityStore> entityRef) {
-        var s = state.get(playerRef.getUsername());
+        if (entityRef == null || !entityRef.isValid()) return false;
+
+        var s = state.get(playerRef);
+        boolean bound = bindHeldWeapon(s, store, entityRef);
+        publishInputView(playerRef, store, entityRef);
+        return bound;
+    }
+
+    /**
+     * World thread: republishes the player's InputView (enabled + which hotbar slots and
+     * which tool hold a bar item) for the packet filter. Does not touch the bound bar.
+     */
+    public void publishInputView(PlayerRef playerRef, Store<EntityStore> store, Ref<EntityStore> entityRef) {
+        var s = state.peek(playerRef);
+        if (s == null) return;
 
+        Player player = store.getComponent(entityRef, Player.getComponentType());
+        if (player == null) {
+            HCA_AbilityApi.publishAllSlotsReady(s);
+            s.input = new AbilityHotbarState.InputView(s.enabled, 0, false, false);
+            return;
+        }
+
+        Inventory inv = player.getInventory();
+        WeaponRegistry registry = weaponRegistry;
+
+        int mask = 0;
+        ItemContainer hotbar = inv.getHotbar();
+        for (short i = 0; i < 9; i++) {
+            if (hasBarTemplate(registry, hotbar.getItemStack(i))) mask |= (1 << i);
+        }
+
+        boolean usingTools = inv.usingToolsItem();
+        boolean toolHasBar = usingTools
+                && hasBarTemplate(registry, inv.getTools().getItemStack((short) inv.getActiveToolsSlot()));
+
+        s.inputActiveSlot = inv.getActiveHotbarSlot();
+        HCA_AbilityApi.publishAllSlotsReady(s);
+        s.input = new AbilityHotbarState.InputView(s.enabled, mask, usingTools, toolHasBar);
+    }
+
+    private static boolean hasBarTemplate(WeaponRegistry registry, ItemStack stack) {
+        if (stack == null || stack.isEmpty()) return false;
+        String id = ItemIdUtil.canonicalItemId(stack.getItemId());
+        return id != null && registry.getBarTemplate(id) != null;
+    }
+
+    private boolean bindHeldWeapon(AbilityHotbarState.State s, Store<EntityStore> store, Ref<EntityStore> entityRef) {
         Player player = store.getComponent(entityRef, Player.getComponentType());
         if (player == null) {
             s.fillAllEmpty();
@@ -63,177 +120,138 @@ public class AbilitySystem {
             return false;
         }
 
-        String heldItemId = ItemIdUtil.normalizeItemId(held.stack.getItemId());
+        String heldItemId = ItemIdUtil.canonicalItemId(held.stack.getItemId());
         if (heldItemId == null || heldItemId.isBlank()) {
             s.fillAllEmpty();
             return false;
         }
 
-        // NEW: register via overrides if needed
-        weaponRegistry.ensureRegistered(heldItemId);
-
-        List<WeaponAbilitySlot> slots = weaponRegistry.getAbilitySlots(heldItemId);
-        s.abilityBarUiPath = weaponRegistry.getAbilityBarPath(heldItemId);
-
-        if (s.abilityBarUiPath == null || s.abilityBarUiPath.isBlank() || slots == null) {
+        WeaponBarTemplate template = weaponRegistry.getBarTemplate(heldItemId);
+        if (template == null) {
             s.fillAllEmpty();
             return false;
         }
 
-        for (int i = 0; i < 9; i++) {
-            if (i < slots.size()) {
-                WeaponAbilitySlot slot = slots.get(i);
-
-                s.hotbarItemIds[i] = (slot == null) ? null : slot.Key;
-                s.hotbarRootInteractions[i] = (slot == null) ? null : slot.RootInteraction;
-
-                s.hotbarAbilityIds[i] = (slot == null) ? null : slot.ID;
-                s.hotbarPluginFlags[i] = slot != null && slot.Plugin;
-                s.hotbarConsumeFlags[i] = slot != null && slot.Consume;
-
-                s.hotbarMaxUses[i] = (slot == null) ? 0 : slot.MaxUses;
-                s.hotbarAbilityValues[i] = (slot == null) ? 0 : slot.AbilityValue;
-
-                float power = 1.0f;
-                if (slot != null && slot.PowerMultiplier > 0.0f) power = slot.PowerMultiplier;
-                s.hotbarPowerMultipliers[i] = power;
-
-                s.hotbarIcons[i] = (slot == null) ? null : slot.Icon;
-                s.hotbarCooldownTimes[i] = (slot == null) ? 0.3f : slot.CooldownTime;
-                s.hotbarRechargeTimes[i] = (slot == null) ? 1.0f : slot.RechargeTime;
-                s.hotbarStartWithCooldown[i] = (slot == null) || slot.StartWithCooldown;
-
-                HCA_AbilityApi.InitializeSlotRuntime(s, i);
-
-            } else {
-                s.hotbarItemIds[i] = null;
-                s.hotbarRootInteractions[i] = null;
-
-                s.hotbarAbilityIds[i] = null;
-                s.hotbarPluginFlags[i] = false;
-                s.hotbarConsumeFlags[i] = false;
-
-                s.hotbarMaxUses[i] = 0;
-                s.hotbarPowerMultipliers[i] = 1.0f;
-                s.hotbarIcons[i] = null;
-                s.hotbarRemainingUses[i] = 0;
-                s.hotbarAbilityValues[i] = 0;
-                s.hotbarCooldownTimes[i] = 0.3f;
-                s.hotbarRechargeTimes[i] = 1.0f;
-                s.hotbarStartWithCooldown[i] = true;
-                s.hotbarCooldownUntilMs[i] = 0L;
-                s.hotbarRechargeAccumulatorSec[i] = 0.0;
-                s.hotbarLastUpdateMs[i] = 0L;
-            }
-        }
+        template.applyTo(s);
 
         s.selectedAbilitySlot = 1;
         s.boundToTools = held.fromTools;
         s.boundSlot = held.slot;
         s.boundItemId = heldItemId;
 
-        loadRuntimeFromItem(s, held.stack);
+        // Fresh runtime that the item doesn't carry yet gets written on the next persist.
+        boolean loaded = loadRuntimeFromItem(s, held.stack);
+        s.runtimeDirtyMask = loaded ? 0 : ALL_SLOTS_DIRTY;
 
         return true;
     }
 
+    /**
+     * World thread (the packet filter calls it from its world task). Runs the ability
+     * inline. Plugin abilities get immutable PackagedAbilityData/AbilityContext objects that
+     * are only rebuilt when a value in them changed, so repeat presses of a slot whose
+     * RemainingUses didn't move allocate nothing here.
+     */
     public void useSlot(PlayerRef playerRef, Store<EntityStore> store, Ref<EntityStore> ref, World world, int slot1to9) {
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return;
 
         if (slot1to9 < 1 || slot1to9 > 9) return;
         int slot0to8 = slot1to9 - 1;
         s.selectedAbilitySlot = slot1to9;
 
-        boolean plugin = s.hotbarPluginFlags[slot0to8];
-        boolean consume = s.hotbarConsumeFlags[slot0to8]; // FIXED
+        boolean plugin = s.pluginFlag(slot0to8);
+        boolean consume = s.consumeFlag(slot0to8); // FIXED
 
-        String id = s.hotbarAbilityIds[slot0to8];
-        String rootInteraction = s.hotbarRootInteractions[slot0to8];
+        String id = s.abilityId(slot0to8);
+        String rootInteraction = s.rootInteraction(slot0to8);
 
         if (plugin) {
             if (id == null || id.isBlank()) return;
             HCA_AbilityApi.TickAllSlots(playerRef);
 
-            String key = s.hotbarItemIds[slot0to8];
-            int maxUses = s.hotbarMaxUses[slot0to8];
-            int remainingUses = s.hotbarRemainingUses[slot0to8];
-            float powerMultiplier = s.hotbarPowerMultipliers[slot0to8];
-            int abilityValue = s.hotbarAbilityValues[slot0to8];
-
-            PackagedAbilityData data = new PackagedAbilityData(
-                    slot0to8,
-                    key,
-                    id,
-                    maxUses,
-                    powerMultiplier,
-                    abilityValue,
-                    rootInteraction,
-                    remainingUses,
-                    consume
-            );
-
-            world.execute(() -> {
-                AbilityContext ctx = AbilityContext.from(
-                        playerRef,
-                        store,
-                        ref,
-                        world,
-                        state,
-                        abilityValue
-                );
-
-                if (!HCA_AbilityApi.SpendUse(ctx.PlayerRef, data.Slot0to8)) {
-                    return;
-                } //check for uses. If none, then stop logic
-
-                boolean handled = AbilityDispatch.dispatch(data, ctx);
-                if (!handled) { return;} else { //auto consumes charge if consume is true
-                    HCA_AbilityApi.ConsumeChargeInHand(ctx, 1);
-                };
-
-
-                if (s.enabled && ctx.Player != null) {
-                    ctx.Player.getHudManager().setCustomHud(
-                            ctx.PlayerRef,
-                            new AbilityHotbarHud(ctx.PlayerRef, state)
-                    );
-                }
-            });
+            int abilityValue = s.abilityValue(slot0to8);
+            PackagedAbilityData data = slotData(s, slot0to8, id, rootInteraction, abilityValue, consume);
 
+            Player player = store.getComponent(ref, Player.getComponentType());
+            float pm = HCA_AbilityApi.GetPlayerPowerMultiplier(playerRef);
+            if (pm <= 0.0f) pm = 1.0f;
+            AbilityContext ctx = AbilityContext.reuse(s.useContext, playerRef, player, store, ref, world, pm, abilityValue);
+            s.useContext = ctx;
+
+            runPluginAbility(s, data, ctx);
             return;
         }
 
         if (rootInteraction == null || rootInteraction.isBlank()) return;
 
-        world.execute(() -> {
-            boolean ok = interactionExecutor.execute(rootInteraction, playerRef, store, ref, world);
+        interactionExecutor.execute(rootInteraction, playerRef, store, ref, world);
 
-            Player player = store.getComponent(ref, Player.getComponentType());
-            if (s.enabled && player != null) {
-                player.getHudManager().setCustomHud(
-                        playerRef,
-                        new AbilityHotbarHud(playerRef, state)
-                );
-            }
-        });
+        Player player = store.getComponent(ref, Player.getComponentType());
+        if (s.enabled && player != null) {
+            AbilityHotbarHud.refresh(player, playerRef, state);
+        }
+    }
+
+    /** The slot's current data, reusing the last instance handed out for it if nothing changed. */
+    static PackagedAbilityData slotData(
+            AbilityHotbarState.State s,
+            int slot0to8,
+            String id,
+            String rootInteraction,
+            int abilityValue,
+            boolean consume
+    ) {
+        PackagedAbilityData[] cache = s.useData;
+        if (cache == null) cache = s.useData = new PackagedAbilityData[9];
+
+        String key = s.itemId(slot0to8);
+        int maxUses = s.maxUses(slot0to8);
+        float power = s.powerMultiplier(slot0to8);
+        int remaining = s.remainingUses(slot0to8);
+
+        PackagedAbilityData data = cache[slot0to8];
+        if (data == null || !data.sameAs(slot0to8, key, id, maxUses, power, abilityValue, rootInteraction, remaining, consume)) {
+            data = new PackagedAbilityData(slot0to8, key, id, maxUses, power, abilityValue, rootInteraction, remaining, consume);
+            cache[slot0to8] = data;
+        }
+        return data;
+    }
+
+    private void runPluginAbility(AbilityHotbarState.State s, PackagedAbilityData data, AbilityContext ctx) {
+        if (!HCA_AbilityApi.SpendUse(ctx.PlayerRef, data.Slot0to8)) {
+            return;
+        } //check for uses. If none, then stop logic
+
+        boolean handled = AbilityDispatch.dispatch(data, ctx);
+        if (!handled) { return;} else { //auto consumes charge if consume is true
+            HCA_AbilityApi.ConsumeChargeInHand(ctx, 1);
+        };
+
+
+        if (s.enabled && ctx.Player != null) {
+            AbilityHotbarHud.refresh(ctx.Player, ctx.PlayerRef, state);
+        }
     }
 
     public boolean shouldConsumeHotbarInput(PlayerRef playerRef, int slot1to9) {
         if (slot1to9 < 1 || slot1to9 > 9) return false;
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return false;
         int idx = slot1to9 - 1;
 
-        if (s.hotbarPluginFlags[idx]) {
-            String id = s.hotbarAbilityIds[idx];
+        if (s.pluginFlag(idx)) {
+            String id = s.abilityId(idx);
             return id != null && !id.isBlank();
         }
 
-        String root = s.hotbarRootInteractions[idx];
+        String root = s.rootInteraction(idx);
         return interactionExecutor.canExecute(root);
     }
 
     public boolean isHoldingBoundItem(PlayerRef playerRef, Store<EntityStore> store, Ref<EntityStore> entityRef) {
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return false;
 
         if (s.boundSlot < 0 || s.boundSlot > 8 || s.boundItemId == null || s.boundItemId.isBlank()) return false;
 
@@ -245,12 +263,34 @@ public class AbilitySystem {
         if (held.fromTools != s.boundToTools) return false;
         if (held.slot != (short) s.boundSlot) return false;
 
-        String heldItemId = ItemIdUtil.normalizeItemId(held.stack.getItemId());
-        return heldItemId != null && heldItemId.equalsIgnoreCase(s.boundItemId);
+        String heldItemId = ItemIdUtil.canonicalItemId(held.stack.getItemId());
+        if (heldItemId == null) return false;
+
+        // Both sides are canonical instances, so the usual case is a reference hit
+        return heldItemId == s.boundItemId || heldItemId.equalsIgnoreCase(s.boundItemId);
     }
 
+    /**
+     * Writes the bound bar's runtime into the held item's metadata, if any slot changed.
+     * Unforced calls are coalesced to one write per PERSIST_INTERVAL_MS; force is for
+     * unbind, drop and disconnect, where the item is about to leave our hands.
+     */
     public void persistBoundRuntime(PlayerRef playerRef, Store<EntityStore> store, Ref<EntityStore> entityRef, boolean force) {
-        var s = state.get(playerRef.getUsername());
+        AbilityHotbarState.State s = state.peek(playerRef);
+        if (s == null) return;
+        persistRuntime(s, store, entityRef, force);
+    }
+
+    /** Forced write for a state that may already be gone from AbilityHotbarState (disconnect). */
+    public void flushRuntime(AbilityHotbarState.State s, Store<EntityStore> store, Ref<EntityStore> entityRef) {
+        if (s == null || entityRef == null || !entityRef.isValid()) return;
+        persistRuntime(s, store, entityRef, true);
+    }
+
+    private void persistRuntime(AbilityHotbarState.State s, Store<EntityStore> store, Ref<EntityStore> entityRef, boolean force) {
+        int dirty = s.runtimeDirtyMask;
+        if (dirty == 0) return;
+
         long now = System.currentTimeMillis();
         if (!force && now < s.nextRuntimePersistAtMs) return;
 
@@ -265,20 +305,16 @@ public class AbilitySystem {
         ItemStack stack = container.getItemStack(slot);
         if (stack == null || stack.isEmpty()) return;
 
-        String stackId = ItemIdUtil.normalizeItemId(stack.getItemId());
-        if (stackId == null || !stackId.equalsIgnoreCase(s.boundItemId)) return;
+        String stackId = ItemIdUtil.canonicalItemId(stack.getItemId());
+        if (stackId == null || (stackId != s.boundItemId && !stackId.equalsIgnoreCase(s.boundItemId))) return;
 
-        BsonDocument runtime = buildRuntimeDocument(s);
-        BsonDocument existing = getExistingRuntimeDocument(stack);
-        if (runtime.equals(existing)) {
-            s.nextRuntimePersistAtMs = now + 1000L;
-            return;
-        }
+        BsonDocument runtime = RuntimeMetaCodec.encode(s, now);
 
-        ItemStack updated = stack.withMetadata(RUNTIME_META_KEY, runtime);
+        ItemStack updated = stack.withMetadata(RuntimeMetaCodec.META_KEY, runtime);
         ItemStackSlotTransaction tx = container.setItemStackForSlot(slot, updated);
         if (tx != null && tx.succeeded()) {
-            s.nextRuntimePersistAtMs = now + 1000L;
+            s.runtimeDirtyMask &= ~dirty;
+            s.nextRuntimePersistAtMs = now + PERSIST_INTERVAL_MS;
         }
     }
 
@@ -302,57 +338,18 @@ public class AbilitySystem {
         return new HeldItemRef(false, hotbarSlot, hotbarStack);
     }
 
-    private static void loadRuntimeFromItem(AbilityHotbarState.State s, ItemStack stack) {
-        if (s == null || stack == null || stack.isEmpty()) return;
-
-        BsonDocument meta = stack.getMetadata();
-        if (meta == null || !meta.containsKey(RUNTIME_META_KEY)) return;
-        if (!meta.get(RUNTIME_META_KEY).isDocument()) return;
-
-        BsonDocument runtime = meta.getDocument(RUNTIME_META_KEY);
-        if (!runtime.containsKey("slots") || !runtime.get("slots").isArray()) return;
-
-        BsonArray slots = runtime.getArray("slots");
-        for (int i = 0; i < 9 && i < slots.size(); i++) {
-            if (!slots.get(i).isDocument()) continue;
-            BsonDocument slot = slots.get(i).asDocument();
-
-            if (slot.containsKey("rem") && slot.get("rem").isInt32()) {
-                int rem = slot.getInt32("rem").getValue();
-                int max = s.hotbarMaxUses[i];
-                if (max > 0) rem = Math.max(0, Math.min(max, rem));
-                else rem = Math.max(0, rem);
-                s.hotbarRemainingUses[i] = rem;
-            }
-            if (slot.containsKey("cd") && slot.get("cd").isInt64()) {
-                s.hotbarCooldownUntilMs[i] = Math.max(0L, slot.getInt64("cd").getValue());
-            }
-        }
+    /** Returns false when the item carries no runtime for us to load. */
+    private static boolean loadRuntimeFromItem(AbilityHotbarState.State s, ItemStack stack) {
+        if (s == null || stack == null || stack.isEmpty()) return false;
+        return RuntimeMetaCodec.decode(getExistingRuntimeDocument(stack), s, System.currentTimeMillis());
     }
 
     private static BsonDocument getExistingRuntimeDocument(ItemStack stack) {
         if (stack == null || stack.isEmpty()) return null;
         BsonDocument meta = stack.getMetadata();
         if (meta == null) return null;
-        if (!meta.containsKey(RUNTIME_META_KEY)) return null;
-        if (!meta.get(RUNTIME_META_KEY).isDocument()) return null;
-        return meta.getDocument(RUNTIME_META_KEY);
-    }
-
-    private static BsonDocument buildRuntimeDocument(AbilityHotbarState.State s) {
-        BsonArray slots = new BsonArray();
-        for (int i = 0; i < 9; i++) {
-            BsonDocument slot = new BsonDocument();
-            slot.put("id", new BsonString(s.hotbarAbilityIds[i] == null ? "" : s.hotbarAbilityIds[i]));
-            slot.put("rem", new BsonInt32(s.hotbarRemainingUses[i]));
-            slot.put("cd", new BsonInt64(s.hotbarCooldownUntilMs[i]));
-            slots.add(slot);
-        }
-
-        BsonDocument runtime = new BsonDocument();
-        runtime.put("v", new BsonInt32(RUNTIME_META_VERSION));
-        runtime.put("slots", slots);
-
-        return runtime;
+        if (!meta.containsKey(RuntimeMetaCodec.META_KEY)) return null;
+        if (!meta.get(RuntimeMetaCodec.META_KEY).isDocument()) return null;
+        return meta.getDocument(RuntimeMetaCodec.META_KEY);
     }
 }
@@ -0,0 +1,261 @@
+package com.abilities.abilitiesplugin;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-cadence driver for players with the ability bar enabled.
+ *
+ * Every tick the enabled players are grouped by world and each world gets ONE
+ * World.execute call that services all of its players: held-item check,
+ * cooldown/recharge ticking, HUD refresh and throttled runtime persistence.
+ */
+public final class AbilityTickScheduler {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    public static final long DEFAULT_INTERVAL_MS = 100L;
+    private static final long MIN_INTERVAL_MS = 20L;
+
+    private final AbilityHotbarState state;
+    private final AbilitySystem abilitySystem;
+
+    // player uuid -> player, only players that turned the bar on
+    private final Map<UUID, PlayerRef> tracked = new ConcurrentHashMap<>();
+
+    // worlds whose previous batch has not run yet (don't pile up tasks on a slow world)
+    private final Set<World> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile long intervalMs;
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> task;
+
+    // ----------------------------
+    // Stats
+    // ----------------------------
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong worldBatches = new AtomicLong();
+    private final AtomicLong skippedBatches = new AtomicLong();
+    private final AtomicLong rejectedBatches = new AtomicLong();
+    private final AtomicLong playersServiced = new AtomicLong();
+    private final AtomicLong hudRefreshes = new AtomicLong();
+    private volatile int lastTickPlayers = 0;
+    private volatile int lastTickWorlds = 0;
+
+    public AbilityTickScheduler(AbilityHotbarState state, AbilitySystem abilitySystem, long intervalMs) {
+        this.state = state;
+        this.abilitySystem = abilitySystem;
+        this.intervalMs = clampInterval(intervalMs);
+    }
+
+    // ----------------------------
+    // Lifecycle
+    // ----------------------------
+
+    public synchronized void start() {
+        if (executor != null) return;
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "HCA-AbilityTick");
+            t.setDaemon(true);
+            return t;
+        });
+        schedule();
+
+        LOGGER.atInfo().log("[HCA] Ability tick scheduler started (interval=%dms)", intervalMs);
+    }
+
+    public synchronized void stop() {
+        if (executor == null) return;
+
+        executor.shutdownNow();
+        executor = null;
+        task = null;
+        tracked.clear();
+        inFlight.clear();
+    }
+
+    public synchronized void setIntervalMs(long newIntervalMs) {
+        intervalMs = clampInterval(newIntervalMs);
+        if (executor == null) return;
+
+        if (task != null) task.cancel(false);
+        schedule();
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    private void schedule() {
+        task = executor.scheduleAtFixedRate(this::tickSafe, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static long clampInterval(long ms) {
+        return Math.max(MIN_INTERVAL_MS, ms);
+    }
+
+    // ----------------------------
+    // Tracking
+    // ----------------------------
+
+    /** Call when a player's bar gets enabled. Players are dropped automatically once disabled. */
+    public void track(PlayerRef playerRef) {
+        if (playerRef == null) return;
+        tracked.put(playerRef.getUuid(), playerRef);
+    }
+
+    public void untrack(PlayerRef playerRef) {
+        if (playerRef == null) return;
+        tracked.remove(playerRef.getUuid(), playerRef);
+    }
+
+    // ----------------------------
+    // Tick
+    // ----------------------------
+
+    private void tickSafe() {
+        try {
+            tick();
+        } catch (Throwable t) {
+            LOGGER.atSevere().log("[HCA] Ability tick failed: %s", String.valueOf(t.getMessage()));
+        }
+    }
+
+    private void tick() {
+        ticks.incrementAndGet();
+
+        // Fire due charge/cooldown events; the world batch below picks the flag up.
+        HCA_AbilityApi.timers().advance(System.currentTimeMillis(), s -> s.timerEventPending = true);
+
+        Map<World, List<PlayerRef>> byWorld = new HashMap<>();
+        for (PlayerRef playerRef : tracked.values()) {
+            var s = state.peek(playerRef);
+            if (s == null || !s.enabled) {
+                untrack(playerRef);
+                continue;
+            }
+
+            Ref<EntityStore> ref = playerRef.getReference();
+            if (ref == null || !ref.isValid()) continue;
+
+            World world = ref.getStore().getExternalData().getWorld();
+            if (world == null) continue;
+
+            byWorld.computeIfAbsent(world, w -> new ArrayList<>()).add(playerRef);
+        }
+
+        int players = 0;
+        int worlds = 0;
+        for (Map.Entry<World, List<PlayerRef>> e : byWorld.entrySet()) {
+            World world = e.getKey();
+            List<PlayerRef> batch = e.getValue();
+
+            if (!inFlight.add(world)) {
+                skippedBatches.incrementAndGet();
+                continue;
+            }
+
+            try {
+                world.execute(() -> {
+                    try {
+                        serviceBatch(batch);
+                    } finally {
+                        inFlight.remove(world);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                // e.g. the world is shutting down; don't pin it or starve the other worlds
+                inFlight.remove(world);
+                rejectedBatches.incrementAndGet();
+                LOGGER.atWarning().log("[HCA] World rejected ability tick batch: %s", String.valueOf(ex.getMessage()));
+                continue;
+            }
+
+            worlds++;
+            players += batch.size();
+            worldBatches.incrementAndGet();
+        }
+
+        lastTickWorlds = worlds;
+        lastTickPlayers = players;
+    }
+
+    /** Runs on the world thread. */
+    private void serviceBatch(List<PlayerRef> batch) {
+        int serviced = 0;
+        for (PlayerRef playerRef : batch) {
+            try {
+                if (servicePlayer(playerRef)) serviced++;
+            } catch (Throwable t) {
+                LOGGER.atSevere().log("[HCA] Ability tick error for %s: %s",
+                        playerRef.getUsername(), String.valueOf(t.getMessage()));
+            }
+        }
+        playersServiced.addAndGet(serviced);
+    }
+
+    private boolean servicePlayer(PlayerRef playerRef) {
+        Ref<EntityStore> ref = playerRef.getReference();
+        if (ref == null || !ref.isValid()) return false;
+
+        Store<EntityStore> store = ref.getStore();
+        Player player = store.getComponent(ref, Player.getComponentType());
+        if (player == null) return false;
+
+        var s = state.peek(playerRef);
+        if (s == null || !s.enabled) return false;
+
+        if (!abilitySystem.isHoldingBoundItem(playerRef, store, ref)) {
+            abilitySystem.persistBoundRuntime(playerRef, store, ref, true);
+            AbilityBarUtil.forceOff(state, player, playerRef);
+            abilitySystem.publishInputView(playerRef, store, ref);
+            return true;
+        }
+
+        // Only touch the HUD when a charge/cooldown event fired or an overlay is still animating.
+        if (s.timerEventPending || HCA_AbilityApi.hasActiveCooldown(s, System.currentTimeMillis())) {
+            s.timerEventPending = false;
+            AbilityHotbarHud.refresh(player, playerRef, state);
+            hudRefreshes.incrementAndGet();
+        }
+
+        abilitySystem.persistBoundRuntime(playerRef, store, ref, false);
+        return true;
+    }
+
+    // ----------------------------
+    // Stats
+    // ----------------------------
+
+    public String describeStats() {
+        return "interval=" + intervalMs + "ms"
+                + " tracked=" + tracked.size()
+                + " ticks=" + ticks.get()
+                + " lastTick(players=" + lastTickPlayers + ", worlds=" + lastTickWorlds + ")"
+                + " batches=" + worldBatches.get()
+                + " skippedBatches=" + skippedBatches.get()
+                + " rejectedBatches=" + rejectedBatches.get()
+                + " serviced=" + playersServiced.get()
+                + " hudRefreshes=" + hudRefreshes.get()
+                + " timers(" + HCA_AbilityApi.timers().describeStats() + ")";
+    }
+}
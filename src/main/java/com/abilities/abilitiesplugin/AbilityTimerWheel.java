@@ -0,0 +1,167 @@
+package com.abilities.abilitiesplugin;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for per-player ability events ("charge regained", "cooldown ended").
+ *
+ * Events are scheduled from the world threads (SpendUse / InitializeSlotRuntime / ...)
+ * and drained by AbilityTickScheduler, which only touches a player's HUD when one of
+ * their events fired. Entries keep their absolute deadline, so a bucket visit fires
+ * everything that is due and keeps the rest for a later rotation.
+ *
+ * Every slot has at most one pending event of each kind. Its node is created on the
+ * slot's first schedule, kept in the State, and moved in place by later schedules, so a
+ * reschedule replaces the old deadline and the steady state allocates nothing.
+ */
+final class AbilityTimerWheel {
+
+    static final long DEFAULT_TICK_MS = 50L;
+    private static final int WHEEL_SIZE = 512; // power of two
+
+    static final byte CHARGE = 0;
+    static final byte COOLDOWN_END = 1;
+    private static final int KINDS = 2;
+
+    /** One slot's event of one kind. Linked into at most one bucket; guarded by the wheel. */
+    static final class Timer {
+        final AbilityHotbarState.State state;
+        final byte kind;
+        long deadlineMs;
+        int bucket = -1; // -1 = not scheduled
+        Timer prev;
+        Timer next;
+
+        Timer(AbilityHotbarState.State state, byte kind) {
+            this.state = state;
+            this.kind = kind;
+        }
+    }
+
+    private final long tickMs;
+    private final Timer[] buckets = new Timer[WHEEL_SIZE];
+
+    private long currentTick = -1L;
+    private int pending = 0;
+
+    // stats
+    private long scheduled = 0;
+    private long firedCharge = 0;
+    private long firedCooldown = 0;
+
+    AbilityTimerWheel(long tickMs) {
+        this.tickMs = Math.max(1L, tickMs);
+    }
+
+    /** Schedules (or moves) the slot's event of this kind to deadlineMs. */
+    synchronized void schedule(AbilityHotbarState.State state, int slot, byte kind, long deadlineMs) {
+        if (state == null || slot < 0 || slot > 8) return;
+
+        Timer[] nodes = state.timerNodes;
+        if (nodes == null) {
+            nodes = new Timer[9 * KINDS];
+            state.timerNodes = nodes;
+        }
+
+        int n = slot * KINDS + kind;
+        Timer t = nodes[n];
+        if (t == null) {
+            t = new Timer(state, kind);
+            nodes[n] = t;
+        } else if (t.bucket >= 0) {
+            unlink(t);
+        }
+
+        // First tick whose visit starts at or after the deadline, so the first visit fires it
+        long tick = (deadlineMs + tickMs - 1) / tickMs;
+        if (currentTick >= 0 && tick <= currentTick) tick = currentTick + 1;
+
+        t.deadlineMs = deadlineMs;
+        link(t, (int) (tick & (WHEEL_SIZE - 1)));
+        scheduled++;
+    }
+
+    /** Drops the slot's pending event of this kind, if any. */
+    void cancel(AbilityHotbarState.State state, int slot, byte kind) {
+        if (state == null || slot < 0 || slot > 8) return;
+
+        // Unlocked pre-check (binds cancel every slot): only the player's own thread links
+        // their nodes, so it sees its own links; a stale "linked" just takes the lock.
+        Timer[] nodes = state.timerNodes;
+        if (nodes == null) return;
+
+        Timer t = nodes[slot * KINDS + kind];
+        if (t == null || t.bucket < 0) return;
+
+        synchronized (this) {
+            if (t.bucket >= 0) unlink(t);
+        }
+    }
+
+    /** Drops every pending event of a player (they left), so the wheel no longer holds their State. */
+    synchronized void cancelAll(AbilityHotbarState.State state) {
+        if (state == null) return;
+
+        Timer[] nodes = state.timerNodes;
+        if (nodes == null) return;
+
+        for (Timer t : nodes) {
+            if (t != null && t.bucket >= 0) unlink(t);
+        }
+    }
+
+    /** Fires every event due at {@code nowMs}. Returns how many fired. */
+    synchronized int advance(long nowMs, Consumer<AbilityHotbarState.State> onFire) {
+        long nowTick = nowMs / tickMs;
+        if (currentTick < 0) currentTick = nowTick - 1;
+        if (nowTick <= currentTick) return 0;
+
+        // After one full rotation every bucket has been visited; deadlines decide the rest.
+        long from = Math.max(currentTick + 1, nowTick - WHEEL_SIZE + 1);
+        int fired = 0;
+
+        for (long tick = from; tick <= nowTick && pending > 0; tick++) {
+            Timer t = buckets[(int) (tick & (WHEEL_SIZE - 1))];
+            while (t != null) {
+                Timer next = t.next;
+                if (t.deadlineMs <= nowMs) {
+                    unlink(t);
+                    if (t.kind == CHARGE) firedCharge++;
+                    else firedCooldown++;
+                    onFire.accept(t.state);
+                    fired++;
+                }
+                t = next;
+            }
+        }
+
+        currentTick = nowTick;
+        return fired;
+    }
+
+    private void link(Timer t, int bucket) {
+        Timer head = buckets[bucket];
+        t.prev = null;
+        t.next = head;
+        if (head != null) head.prev = t;
+        buckets[bucket] = t;
+        t.bucket = bucket;
+        pending++;
+    }
+
+    private void unlink(Timer t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else buckets[t.bucket] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+        t.bucket = -1;
+        pending--;
+    }
+
+    synchronized String describeStats() {
+        return "pending=" + pending
+                + " scheduled=" + scheduled
+                + " fired(charge=" + firedCharge + ", cooldown=" + firedCooldown + ")";
+    }
+}
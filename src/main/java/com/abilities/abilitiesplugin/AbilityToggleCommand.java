@@ -16,14 +16,17 @@ public class AbilityToggleCommand extends AbstractPlayerCommand {
 
     private final AbilityHotbarState state;
     private final AbilitySystem abilitySystem;
+    private final AbilityTickScheduler tickScheduler;
 
     public AbilityToggleCommand(
             AbilityHotbarState state,
-            AbilitySystem abilitySystem
+            AbilitySystem abilitySystem,
+            AbilityTickScheduler tickScheduler
     ) {
         super("abilitybar", "Toggle ability bar");
         this.state = state;
         this.abilitySystem = abilitySystem;
+        this.tickScheduler = tickScheduler;
     }
 
     @Override
@@ -35,21 +38,20 @@ public class AbilityToggleCommand extends AbstractPlayerCommand {
             @Nonnull World world
     ) {
         world.execute(() -> {
-            var s = state.get(playerRef.getUsername());
+            if (!ref.isValid()) return;
+
+            // explicit bind path: may create the player's state
+            var s = state.get(playerRef);
             s.enabled = !s.enabled;
 
             Player player = store.getComponent(ref, Player.getComponentType());
             if (player == null) return;
 
-            var hudManager = player.getHudManager();
-
             if (s.enabled) {
                 abilitySystem.refreshFromHeldWeapon(playerRef, store, ref);
 
-                hudManager.setCustomHud(
-                        playerRef,
-                        new AbilityHotbarHud(playerRef, state)
-                );
+                AbilityHotbarHud.show(player, playerRef, state);
+                tickScheduler.track(playerRef);
 
                 ctx.sendMessage(Message.raw("Ability Bar: ON"));
             } else {
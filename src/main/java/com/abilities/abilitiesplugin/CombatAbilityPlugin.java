@@ -1,10 +1,16 @@
 package com.abilities.abilitiesplugin;
 
+import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.io.adapter.PacketAdapters;
 import com.hypixel.hytale.server.core.io.adapter.PacketFilter;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import java.nio.file.Path;
 
 public class CombatAbilityPlugin extends JavaPlugin {
 
@@ -12,6 +18,10 @@ public class CombatAbilityPlugin extends JavaPlugin {
 
     private final AbilityHotbarState state = new AbilityHotbarState();
     private PacketFilter inboundFilter;
+    private AbilityTickScheduler tickScheduler;
+    private PackReloader packReloader;
+    private ExternalExecutorChain externalChain;
+    private AbilitySystem abilitySystem;
 
     public CombatAbilityPlugin(JavaPluginInit init) {
         super(init);
@@ -24,24 +34,106 @@ public class CombatAbilityPlugin extends JavaPlugin {
         WeaponRegistry weaponRegistry = new WeaponRegistry();
         HCA_AbilityApi.Init(state);
 
+        // Jar scan results are cached between restarts (disable with -Dhca.packCache=false)
+        Path packCacheFile = Boolean.parseBoolean(System.getProperty("hca.packCache", "true"))
+                ? getDataDirectory().resolve("pack-scan-cache.json")
+                : null;
+
         // ✅ This will now apply Hotbar's own HCA/HCA_pack.json first again
-        ModPackScanner.loadAllPacks(weaponRegistry, getClass().getClassLoader());
+        ModPackScanner.loadAllPacks(weaponRegistry, getClass().getClassLoader(), packCacheFile);
 
         // Now build ability system
         AbilityInteractionExecutor interactionExecutor = new AbilityInteractionExecutor();
-        AbilitySystem abilitySystem = new AbilitySystem(weaponRegistry, state, interactionExecutor);
+        abilitySystem = new AbilitySystem(weaponRegistry, state, interactionExecutor);
+
+        // HUD refresh / cooldown expiry / persistence cadence (override with -Dhca.tickIntervalMs=...)
+        tickScheduler = new AbilityTickScheduler(
+                state,
+                abilitySystem,
+                Long.getLong("hca.tickIntervalMs", AbilityTickScheduler.DEFAULT_INTERVAL_MS)
+        );
+        tickScheduler.start();
+
+        // External doAbility hooks are discovered in start() (every plugin is set up by then)
+        externalChain = new ExternalExecutorChain();
 
-        ExternalExecutorChain chain = new ExternalExecutorChain();
-        chain.discover();
+        // /hca reload (and dataDir/hca watching with -Dhca.watchPacks=true)
+        packReloader = new PackReloader(state, abilitySystem, tickScheduler, externalChain, getClass().getClassLoader(), packCacheFile);
+        if (Boolean.getBoolean("hca.watchPacks")) packReloader.startWatching();
 
-        AbilityDispatch.register(new HCA_DoAbility(chain));
+        // Built-in abilities go in the dispatch table; the instance itself is only
+        // asked (and falls through to the reflective chain) with -Dhca.legacyDispatch=true
+        HCA_DoAbility builtIn = new HCA_DoAbility(externalChain);
+        builtIn.registerAbilities();
+        AbilityDispatch.register(builtIn);
+
+        AbilityHotbarPacketFilter packetFilter = new AbilityHotbarPacketFilter(state, abilitySystem, tickScheduler);
 
         // Commands
-        this.getCommandRegistry().registerCommand(new AbilityToggleCommand(state, abilitySystem));
-        this.getCommandRegistry().registerCommand(new AbilityDebugCommand(state));
+        this.getCommandRegistry().registerCommand(new AbilityToggleCommand(state, abilitySystem, tickScheduler));
+        this.getCommandRegistry().registerCommand(new AbilityDebugCommand(state, tickScheduler, packetFilter));
+        this.getCommandRegistry().registerCommand(new HcaCommand(packReloader));
+
+        // Drop per-player state when the player leaves so the store stays bounded
+        this.getEventRegistry().register(PlayerDisconnectEvent.class, this::onPlayerDisconnect);
 
         // Packet filter
-        inboundFilter = PacketAdapters.registerInbound(new AbilityHotbarPacketFilter(state, abilitySystem));
+        inboundFilter = PacketAdapters.registerInbound(packetFilter);
+    }
+
+    @Override
+    protected void start() {
+        externalChain.discover();
+    }
+
+    private void onPlayerDisconnect(PlayerDisconnectEvent event) {
+        var playerRef = event.getPlayerRef();
+        if (playerRef == null) return;
+
+        if (tickScheduler != null) tickScheduler.untrack(playerRef);
+        var s = state.remove(playerRef);
+
+        if (s == null) return;
+        if (abilitySystem == null) {
+            s.release();
+            return;
+        }
+
+        // Last chance to write charges/cooldowns into the bound item. The dirty mask is only
+        // read on the world thread, so whether there is anything to write is decided there.
+        var ref = playerRef.getReference();
+        var world = (ref == null || !ref.isValid()) ? null : ref.getStore().getExternalData().getWorld();
+        if (world == null) {
+            LOGGER.atWarning().log("[HCA] %s left without a valid entity; unsaved ability charges/cooldowns are dropped", playerRef.getUsername());
+            s.release();
+            return;
+        }
+
+        // Already on the world thread: write now, before the entity can be removed
+        if (world.isInThread()) {
+            flushOnDisconnect(playerRef, s, ref);
+        } else {
+            world.execute(() -> flushOnDisconnect(playerRef, s, ref));
+        }
+    }
+
+    /** World thread. Always releases the state. */
+    private void flushOnDisconnect(PlayerRef playerRef, AbilityHotbarState.State s, Ref<EntityStore> ref) {
+        try {
+            if (s.runtimeDirtyMask == 0) return;
+
+            if (!ref.isValid()) {
+                LOGGER.atWarning().log(
+                        "[HCA] %s was removed before the disconnect flush ran; unsaved ability charges/cooldowns are dropped",
+                        playerRef.getUsername()
+                );
+                return;
+            }
+
+            abilitySystem.flushRuntime(s, ref.getStore(), ref);
+        } finally {
+            s.release();
+        }
     }
 
     @Override
@@ -50,5 +142,13 @@ public class CombatAbilityPlugin extends JavaPlugin {
             PacketAdapters.deregisterInbound(inboundFilter);
             inboundFilter = null;
         }
+        if (tickScheduler != null) {
+            tickScheduler.stop();
+            tickScheduler = null;
+        }
+        if (packReloader != null) {
+            packReloader.stop();
+            packReloader = null;
+        }
     }
 }
@@ -1,8 +1,15 @@
 package com.abilities.abilitiesplugin;
 
+import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.Message;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Executes a command by reflection to avoid hard dependencies.
@@ -12,75 +19,227 @@ import java.lang.reflect.Method;
  *
  * Example:
  * "katanas_doability {abilityId} {slot} {value} {power}"
+ *
+ * Routes are compiled once into {@link Template}s (literal/token segments) and rendered
+ * into a per-thread StringBuilder. The PlayerRef methods that can run commands are looked
+ * up once per PlayerRef class and kept as an ordered chain of MethodHandles (command-style
+ * methods, then chat), which is walked until one of them accepts the command.
  */
 public final class CommandDispatch {
 
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
     private CommandDispatch() {}
 
-    public static boolean tryRun(String commandTemplate, PackagedAbilityData data, AbilityContext ctx) {
-        if (commandTemplate == null || commandTemplate.isBlank()) return false;
+    // ----------------------------
+    // Templates
+    // ----------------------------
+
+    private enum Token { PLAYER, ABILITY_ID, SLOT, VALUE, POWER, REMAINING, MAX }
+
+    private static final Map<String, Token> TOKENS = Map.of(
+            "player", Token.PLAYER,
+            "abilityId", Token.ABILITY_ID,
+            "slot", Token.SLOT,
+            "value", Token.VALUE,
+            "power", Token.POWER,
+            "remaining", Token.REMAINING,
+            "max", Token.MAX
+    );
+
+    /** A command template split into literal text and tokens. Immutable. */
+    public static final class Template {
+        private final String source;
+        private final String[] literals; // literals[i] comes before tokens[i]; one extra trailing literal
+        private final Token[] tokens;
+
+        private Template(String source, String[] literals, Token[] tokens) {
+            this.source = source;
+            this.literals = literals;
+            this.tokens = tokens;
+        }
 
-        String cmd = expand(commandTemplate, data, ctx);
+        public String source() {
+            return source;
+        }
+    }
 
-        if (cmd.startsWith("/")) cmd = cmd.substring(1);
+    /** Returns null for a null/blank template. Unknown {tokens} are kept as literal text. */
+    public static Template compile(String commandTemplate) {
+        if (commandTemplate == null || commandTemplate.isBlank()) return null;
+
+        List<String> literals = new ArrayList<>();
+        List<Token> tokens = new ArrayList<>();
+
+        StringBuilder lit = new StringBuilder();
+        int i = 0;
+        while (i < commandTemplate.length()) {
+            char c = commandTemplate.charAt(i);
+            if (c == '{') {
+                int close = commandTemplate.indexOf('}', i + 1);
+                Token t = (close < 0) ? null : TOKENS.get(commandTemplate.substring(i + 1, close));
+                if (t != null) {
+                    literals.add(lit.toString());
+                    tokens.add(t);
+                    lit.setLength(0);
+                    i = close + 1;
+                    continue;
+                }
+            }
+            lit.append(c);
+            i++;
+        }
+        literals.add(lit.toString());
 
-        boolean ok = tryRunOnPlayerRef(ctx, cmd);
-        if (!ok && ctx != null && ctx.PlayerRef != null) {
-            ctx.PlayerRef.sendMessage(Message.raw("[HCA] Could not execute command dispatch: " + cmd));
+        return new Template(commandTemplate, literals.toArray(new String[0]), tokens.toArray(new Token[0]));
+    }
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private static String render(Template tpl, PackagedAbilityData data, AbilityContext ctx, boolean withSlash) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+
+        for (int i = 0; i < tpl.tokens.length; i++) {
+            sb.append(tpl.literals[i]);
+            switch (tpl.tokens[i]) {
+                case PLAYER -> {
+                    if (ctx != null && ctx.PlayerRef != null) sb.append(ctx.PlayerRef.getUsername());
+                }
+                case ABILITY_ID -> sb.append(safe(data.ID));
+                case SLOT -> sb.append(data.Slot1to9);
+                case VALUE -> sb.append(data.AbilityValue);
+                case POWER -> sb.append(data.PowerMultiplier);
+                case REMAINING -> sb.append(data.RemainingUses);
+                case MAX -> sb.append(data.MaxUses);
+            }
         }
-        return ok;
+        sb.append(tpl.literals[tpl.tokens.length]);
+
+        boolean hasSlash = sb.length() > 0 && sb.charAt(0) == '/';
+        if (withSlash) return hasSlash ? sb.toString() : "/" + sb;
+        return hasSlash ? sb.substring(1) : sb.toString();
     }
 
-    private static String expand(String tpl, PackagedAbilityData data, AbilityContext ctx) {
-        String player = (ctx == null || ctx.PlayerRef == null) ? "" : ctx.PlayerRef.getUsername();
-
-        return tpl
-                .replace("{player}", player)
-                .replace("{abilityId}", safe(data.ID))
-                .replace("{slot}", Integer.toString(data.Slot1to9))
-                .replace("{value}", Integer.toString(data.AbilityValue))
-                .replace("{power}", Float.toString(data.PowerMultiplier))
-                .replace("{remaining}", Integer.toString(data.RemainingUses))
-                .replace("{max}", Integer.toString(data.MaxUses));
+    // ----------------------------
+    // Run
+    // ----------------------------
+
+    public static boolean tryRun(String commandTemplate, PackagedAbilityData data, AbilityContext ctx) {
+        return tryRun(compile(commandTemplate), data, ctx);
+    }
+
+    public static boolean tryRun(Template template, PackagedAbilityData data, AbilityContext ctx) {
+        if (template == null || data == null) return false;
+        if (ctx == null || ctx.PlayerRef == null) return false;
+
+        Invoker[] chain = INVOKERS.get(ctx.PlayerRef.getClass());
+
+        String cmd = null;
+        boolean slash = false;
+        for (int i = 0; i < chain.length; i++) {
+            Invoker invoker = chain[i];
+            if (cmd == null || invoker.withSlash != slash) {
+                slash = invoker.withSlash;
+                cmd = render(template, data, ctx, slash);
+            }
+            Invoker next = (i + 1 < chain.length) ? chain[i + 1] : null;
+            if (invoker.run(ctx.PlayerRef, cmd, next)) return true;
+        }
+
+        String cmdNoSlash = render(template, data, ctx, false);
+        ctx.PlayerRef.sendMessage(Message.raw("[HCA] Could not execute command dispatch: " + cmdNoSlash));
+        return false;
     }
 
     private static String safe(String s) {
         return (s == null) ? "" : s;
     }
 
-    private static boolean tryRunOnPlayerRef(AbilityContext ctx, String cmdNoSlash) {
-        if (ctx == null || ctx.PlayerRef == null) return false;
+    // ----------------------------
+    // Command method, resolved once per PlayerRef class
+    // ----------------------------
+
+    private static final MethodType RUN_TYPE = MethodType.methodType(void.class, Object.class, String.class);
 
-        Object playerRef = ctx.PlayerRef;
-        Class<?> c = playerRef.getClass();
+    private static final Invoker[] NONE = new Invoker[0];
 
-        String[] methods = new String[] {
-                "executeCommand",
-                "runCommand",
-                "dispatchCommand",
-                "performCommand"
-        };
+    /** One resolved method of one PlayerRef class. */
+    private static final class Invoker {
+        final MethodHandle handle; // (Object playerRef, String cmd) void
+        final String name;
+        final boolean withSlash;   // chat-style methods want the leading '/'
 
-        for (String m : methods) {
+        // Only the first failure of a method is logged; a racing second log is harmless.
+        private volatile boolean warned;
+
+        Invoker(MethodHandle handle, String name, boolean withSlash) {
+            this.handle = handle;
+            this.name = name;
+            this.withSlash = withSlash;
+        }
+
+        boolean run(Object playerRef, String cmd, Invoker next) {
             try {
-                Method mm = c.getMethod(m, String.class);
-                mm.invoke(playerRef, cmdNoSlash);
+                handle.invokeExact(playerRef, cmd);
                 return true;
-            } catch (Throwable ignored) {}
+            } catch (Throwable t) {
+                if (!warned) {
+                    warned = true;
+                    LOGGER.atWarning().log(
+                            "[HCA] %s.%s failed for \"%s\"%s: %s (further failures of this method are not logged)",
+                            playerRef.getClass().getSimpleName(),
+                            name,
+                            cmd,
+                            (next != null) ? ", trying " + next.name : "",
+                            String.valueOf(t)
+                    );
+                }
+                return false;
+            }
         }
+    }
 
-        try {
-            Method chat = c.getMethod("chat", String.class);
-            chat.invoke(playerRef, "/" + cmdNoSlash);
-            return true;
-        } catch (Throwable ignored) {}
+    // same preference order as before: command-style first, then chat with a slash
+    private static final String[] COMMAND_METHODS = {
+            "executeCommand",
+            "runCommand",
+            "dispatchCommand",
+            "performCommand"
+    };
+
+    private static final String[] CHAT_METHODS = {
+            "chat",
+            "sendChatMessage"
+    };
+
+    private static final ClassValue<Invoker[]> INVOKERS = new ClassValue<>() {
+        @Override
+        protected Invoker[] computeValue(Class<?> type) {
+            List<Invoker> chain = new ArrayList<>();
+            for (String m : COMMAND_METHODS) {
+                MethodHandle h = find(type, m);
+                if (h != null) chain.add(new Invoker(h, m, false));
+            }
+            for (String m : CHAT_METHODS) {
+                MethodHandle h = find(type, m);
+                if (h != null) chain.add(new Invoker(h, m, true));
+            }
+
+            if (chain.isEmpty()) {
+                LOGGER.atWarning().log("[HCA] No command method found on %s, command routes will not run", type.getName());
+                return NONE;
+            }
+            return chain.toArray(new Invoker[0]);
+        }
+    };
 
+    private static MethodHandle find(Class<?> type, String name) {
         try {
-            Method sendChat = c.getMethod("sendChatMessage", String.class);
-            sendChat.invoke(playerRef, "/" + cmdNoSlash);
-            return true;
-        } catch (Throwable ignored) {}
-
-        return false;
+            Method m = type.getMethod(name, String.class);
+            return MethodHandles.lookup().unreflect(m).asType(RUN_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
     }
 }
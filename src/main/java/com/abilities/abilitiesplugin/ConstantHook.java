@@ -0,0 +1,59 @@
+package com.abilities.abilitiesplugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Template for one bound external doAbility hook.
+ *
+ * Never instantiated as itself: {@link #define} loads a copy of this class's bytes as a
+ * hidden class per hook, with the bound (PackagedAbilityData, AbilityContext)boolean handle
+ * as class data. TARGET is then a static final constant in each copy, so the JIT folds it and
+ * inlines through invokeExact into the mod's method, the same as for a compiled-in lambda.
+ */
+final class ConstantHook implements IExternalAbilityExecutor {
+
+    // null in the template itself, the hook's handle in every hidden copy
+    private static final MethodHandle TARGET = classData();
+
+    private static byte[] template;
+
+    private static MethodHandle classData() {
+        try {
+            return MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public boolean doAbility(PackagedAbilityData data, AbilityContext ctx) {
+        try {
+            return (boolean) TARGET.invokeExact(data, ctx);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /** Defines a hidden copy bound to the handle, which must be exactly (PackagedAbilityData, AbilityContext)boolean. */
+    static IExternalAbilityExecutor define(MethodHandle bound) throws Throwable {
+        MethodHandles.Lookup hook = MethodHandles.lookup().defineHiddenClassWithClassData(template(), bound, true);
+        return (IExternalAbilityExecutor) hook.findConstructor(hook.lookupClass(), MethodType.methodType(void.class)).invoke();
+    }
+
+    private static synchronized byte[] template() throws IOException {
+        if (template == null) {
+            try (InputStream in = ConstantHook.class.getResourceAsStream("ConstantHook.class")) {
+                if (in == null) throw new IOException("ConstantHook.class not found");
+                template = in.readAllBytes();
+            }
+        }
+        return template;
+    }
+}
@@ -4,38 +4,69 @@ import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.plugin.PluginBase;
 import com.hypixel.hytale.server.core.plugin.PluginManager;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Finds doAbility(data, ctx) hooks on other plugins.
+ *
+ * A plugin that also has {@code String[] abilityIds()} and/or {@code String[] abilityIdPrefixes()}
+ * gets its hook registered in AbilityDispatch for exactly those ids. Hooks without a
+ * declaration are only tried one after another from {@link #tryExecute}, which
+ * AbilityDispatch only reaches with -Dhca.legacyDispatch=true.
+ *
+ * Each hook is bound once into an {@link IExternalAbilityExecutor} (see {@link #bind}), so
+ * calling it is a plain interface call instead of Method.invoke with boxed arguments and result.
+ *
+ * Discovery never runs on the ability path. It runs once all plugins are set up
+ * (CombatAbilityPlugin.start) and again on /hca reload; each run builds a new executor
+ * array and swaps it in, together with the declared ids in AbilityDispatch.
+ * Mods that don't want to be scanned can call AbilityDispatch.registerAbility directly.
+ */
 public final class ExternalExecutorChain {
 
     private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
 
+    private static final MethodType HOOK_TYPE =
+            MethodType.methodType(boolean.class, PackagedAbilityData.class, AbilityContext.class);
+
     private static final class Entry {
-        final Object instance;
-        final Method method;
+        final String name;
+        final IExternalAbilityExecutor executor;
+        final boolean declared;
 
-        Entry(Object instance, Method method) {
-            this.instance = instance;
-            this.method = method;
+        Entry(String name, IExternalAbilityExecutor executor, boolean declared) {
+            this.name = name;
+            this.executor = executor;
+            this.declared = declared;
         }
     }
 
-    private final List<Entry> entries = new ArrayList<>();
-    private int lastPluginCount = -1;
+    // published; rebuilt by discover(), never mutated
+    private volatile Entry[] entries = new Entry[0];
 
-    public void discover() {
-        entries.clear();
+    public synchronized void discover() {
+        List<Entry> found = new ArrayList<>();
+        Map<String, IAbilityPlugin> declaredIds = new LinkedHashMap<>();
+        Map<String, IAbilityPlugin> declaredPrefixes = new LinkedHashMap<>();
 
         List<PluginBase> plugins = PluginManager.get().getPlugins();
         if (plugins == null) {
             LOGGER.atInfo().log("[HCA] External ability executors discovered: 0 (no plugins list)");
-            return;
+            plugins = List.of();
         }
 
         for (PluginBase plugin : plugins) {
@@ -52,44 +83,50 @@ public final class ExternalExecutorChain {
                 }
             }
 
-            scanPlugin(plugin);
+            int before = found.size();
+            scanPlugin(plugin, found, declaredIds, declaredPrefixes);
+            if (found.size() > before && !cn.startsWith("com.abilities.abilitiesplugin")) {
+                AbilityHotbarState.refuseCompactModeFor(cn);
+            }
         }
 
-        LOGGER.atInfo().log("[HCA] External ability executors discovered: %d", entries.size());
+        AbilityDispatch.replaceDiscovered(declaredIds, declaredPrefixes);
+        entries = found.toArray(new Entry[0]);
+
+        LOGGER.atInfo().log("[HCA] External ability executors discovered: %d", found.size());
     }
 
     public boolean tryExecute(PackagedAbilityData data, AbilityContext ctx) {
         if (data == null || ctx == null) return false;
 
-        refreshIfNeeded();
-
         for (Entry e : entries) {
-            try {
-                Object result = e.method.invoke(e.instance, data, ctx);
-                if (result instanceof Boolean && (Boolean) result) return true;
-            } catch (Throwable t) {
-                LOGGER.atSevere().log(
-                        "[HCA] External ability error in %s.%s : %s",
-                        e.instance.getClass().getName(),
-                        e.method.getName(),
-                        String.valueOf(t.getMessage())
-                );
-            }
+            // declared hooks are reached through the dispatch table already
+            if (e.declared) continue;
+            if (invoke(e, data, ctx)) return true;
         }
 
         return false;
     }
 
-    private void refreshIfNeeded() {
-        List<PluginBase> plugins = PluginManager.get().getPlugins();
-        int now = (plugins == null) ? 0 : plugins.size();
-        if (now != lastPluginCount) {
-            lastPluginCount = now;
-            discover();
+    private static boolean invoke(Entry e, PackagedAbilityData data, AbilityContext ctx) {
+        try {
+            return e.executor.doAbility(data, ctx);
+        } catch (Throwable t) {
+            LOGGER.atSevere().log(
+                    "[HCA] External ability error in %s : %s",
+                    e.name,
+                    String.valueOf(t.getMessage())
+            );
+            return false;
         }
     }
 
-    private void scanPlugin(Object plugin) {
+    private void scanPlugin(
+            Object plugin,
+            List<Entry> found,
+            Map<String, IAbilityPlugin> declaredIds,
+            Map<String, IAbilityPlugin> declaredPrefixes
+    ) {
         Class<?> cls = plugin.getClass();
 
         for (Method m : cls.getDeclaredMethods()) {
@@ -104,15 +141,137 @@ public final class ExternalExecutorChain {
 
             if (!typed && !generic) continue;
 
-            m.setAccessible(true);
-            entries.add(new Entry(plugin, m));
+            IExternalAbilityExecutor executor = bind(plugin, m);
+            if (executor == null) continue;
+
+            String[] ids = readDeclaredIds(plugin, "abilityIds");
+            String[] prefixes = readDeclaredIds(plugin, "abilityIdPrefixes");
+            boolean declared = ids.length > 0 || prefixes.length > 0;
+
+            Entry entry = new Entry(cls.getName() + "." + m.getName(), executor, declared);
+            found.add(entry);
+
+            if (declared) {
+                IAbilityPlugin handler = (data, ctx) -> invoke(entry, data, ctx);
+                for (String id : ids) declaredIds.put(id, handler);
+                for (String prefix : prefixes) declaredPrefixes.put(prefix, handler);
+            }
 
             LOGGER.atInfo().log(
-                    "[HCA] External ability hook (%s): %s.%s",
+                    "[HCA] External ability hook (%s): %s.%s ids=%d prefixes=%d",
                     typed ? "typed" : "generic",
                     cls.getName(),
-                    m.getName()
+                    m.getName(),
+                    ids.length,
+                    prefixes.length
+            );
+
+            if (!declared && !AbilityDispatch.isLegacyDispatch()) {
+                LOGGER.atWarning().log(
+                        "[HCA] %s declares no abilityIds()/abilityIdPrefixes(); its hook only runs with -Dhca.legacyDispatch=true",
+                        cls.getName()
+                );
+            }
+        }
+    }
+
+    /**
+     * Binds doAbility on this plugin instance to the executor interface.
+     *
+     * A LambdaMetafactory lambda needs a full-privilege lookup in the plugin's class, which
+     * only exists when the plugin shares our module (dev runs scanning HCA itself); a mod in
+     * its own loader only gets a lookup without MODULE access, which LMF refuses. Those hooks
+     * get a {@link ConstantHook}: a hidden class holding the bound handle as a constant.
+     */
+    static IExternalAbilityExecutor bind(Object plugin, Method m) {
+        Class<?> cls = plugin.getClass();
+
+        MethodHandle target;
+        try {
+            m.setAccessible(true);
+            target = MethodHandles.lookup().unreflect(m);
+        } catch (Throwable t) {
+            LOGGER.atWarning().log("[HCA] Cannot access %s.%s: %s", cls.getName(), m.getName(), String.valueOf(t.getMessage()));
+            return null;
+        }
+
+        boolean isStatic = Modifier.isStatic(m.getModifiers());
+        if (!isStatic && cls.getModule() == ExternalExecutorChain.class.getModule()) {
+            IExternalAbilityExecutor lambda = bindLambda(plugin, m);
+            if (lambda != null) return lambda;
+        }
+
+        MethodHandle bound = (isStatic ? target : target.bindTo(plugin)).asType(HOOK_TYPE);
+        return bindHandle(bound);
+    }
+
+    /** LambdaMetafactory lambda in the plugin class's own lookup; null (logged) if that is refused. */
+    static IExternalAbilityExecutor bindLambda(Object plugin, Method m) {
+        Class<?> cls = plugin.getClass();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(cls, MethodHandles.lookup());
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "doAbility",
+                    MethodType.methodType(IExternalAbilityExecutor.class, cls),
+                    HOOK_TYPE,
+                    lookup.unreflect(m),
+                    HOOK_TYPE
+            );
+            return (IExternalAbilityExecutor) site.getTarget().invoke(plugin);
+        } catch (Throwable t) {
+            LOGGER.atWarning().log(
+                    "[HCA] LambdaMetafactory refused %s.%s, binding it as a constant hook: %s",
+                    cls.getName(),
+                    m.getName(),
+                    String.valueOf(t)
+            );
+            return null;
+        }
+    }
+
+    /**
+     * Wraps an exact-typed (PackagedAbilityData, AbilityContext)boolean handle. If the hidden
+     * class can't be defined, the handle is captured in a lambda instead (works, but the JIT
+     * can't see through the captured handle).
+     */
+    static IExternalAbilityExecutor bindHandle(MethodHandle bound) {
+        try {
+            return ConstantHook.define(bound);
+        } catch (Throwable t) {
+            LOGGER.atWarning().log("[HCA] Could not define a constant hook, using a captured handle: %s", String.valueOf(t));
+        }
+
+        return (data, ctx) -> {
+            try {
+                return (boolean) bound.invokeExact(data, ctx);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        };
+    }
+
+    // Optional no-arg String[] method on the plugin listing what it handles
+    private static String[] readDeclaredIds(Object plugin, String methodName) {
+        try {
+            Method m = plugin.getClass().getDeclaredMethod(methodName);
+            if (!String[].class.equals(m.getReturnType())) return new String[0];
+
+            m.setAccessible(true);
+            String[] ids = (String[]) m.invoke(plugin);
+            return (ids == null) ? new String[0] : ids;
+        } catch (NoSuchMethodException ignored) {
+            return new String[0];
+        } catch (Throwable t) {
+            LOGGER.atWarning().log(
+                    "[HCA] %s.%s failed: %s",
+                    plugin.getClass().getName(),
+                    methodName,
+                    String.valueOf(t.getMessage())
             );
+            return new String[0];
         }
     }
 
@@ -24,6 +24,15 @@ public final class HCA_AbilityApi {
     private static AbilityHotbarState state;
     public static final Random rng = new Random();
 
+    private static final long NO_EVENT = Long.MAX_VALUE;
+
+    // "charge regained" / "cooldown ended" events, drained by AbilityTickScheduler
+    private static final AbilityTimerWheel timers = new AbilityTimerWheel(AbilityTimerWheel.DEFAULT_TICK_MS);
+
+    static AbilityTimerWheel timers() {
+        return timers;
+    }
+
     private HCA_AbilityApi() {}
 
     public static void Init(AbilityHotbarState State) {
@@ -65,28 +74,29 @@ public final class HCA_AbilityApi {
         if (playerRef == null) return null;
         if (slotIndex0to8 < 0 || slotIndex0to8 > 8) return null;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return null;
         tickRecharge(s, slotIndex0to8, System.currentTimeMillis());
         AbilitySlotInfo info = new AbilitySlotInfo(slotIndex0to8);
 
-        info.key = s.hotbarItemIds[slotIndex0to8];
-        info.rootInteraction = s.hotbarRootInteractions[slotIndex0to8];
-        info.id = s.hotbarAbilityIds[slotIndex0to8];
+        info.key = s.itemId(slotIndex0to8);
+        info.rootInteraction = s.rootInteraction(slotIndex0to8);
+        info.id = s.abilityId(slotIndex0to8);
 
-        info.plugin = s.hotbarPluginFlags[slotIndex0to8];
-        info.consume = s.hotbarConsumeFlags[slotIndex0to8];
+        info.plugin = s.pluginFlag(slotIndex0to8);
+        info.consume = s.consumeFlag(slotIndex0to8);
 
-        info.maxUses = s.hotbarMaxUses[slotIndex0to8];
-        info.remainingUses = s.hotbarRemainingUses[slotIndex0to8];
+        info.maxUses = s.maxUses(slotIndex0to8);
+        info.remainingUses = s.remainingUses(slotIndex0to8);
 
-        info.powerMultiplier = s.hotbarPowerMultipliers[slotIndex0to8];
-        info.abilityValue = s.hotbarAbilityValues[slotIndex0to8];
+        info.powerMultiplier = s.powerMultiplier(slotIndex0to8);
+        info.abilityValue = s.abilityValue(slotIndex0to8);
 
-        info.icon = s.hotbarIcons[slotIndex0to8];
-        info.cooldownTime = s.hotbarCooldownTimes[slotIndex0to8];
-        info.rechargeTime = s.hotbarRechargeTimes[slotIndex0to8];
-        info.startWithCooldown = s.hotbarStartWithCooldown[slotIndex0to8];
-        info.cooldownUntilMs = s.hotbarCooldownUntilMs[slotIndex0to8];
+        info.icon = s.icon(slotIndex0to8);
+        info.cooldownTime = s.cooldownTime(slotIndex0to8);
+        info.rechargeTime = s.rechargeTime(slotIndex0to8);
+        info.startWithCooldown = s.startWithCooldown(slotIndex0to8);
+        info.cooldownUntilMs = s.cooldownUntilMs(slotIndex0to8);
 
         return info;
     }
@@ -121,16 +131,17 @@ public final class HCA_AbilityApi {
         int idx = info.slotIndex0to8;
         if (idx < 0 || idx > 8) return false;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return false;
 
-        s.hotbarItemIds[idx] = info.key;
-        s.hotbarRootInteractions[idx] = info.rootInteraction;
-        s.hotbarAbilityIds[idx] = info.id;
+        s.setItemId(idx, info.key);
+        s.setRootInteraction(idx, info.rootInteraction);
+        s.setAbilityId(idx, info.id);
 
-        s.hotbarPluginFlags[idx] = info.plugin;
-        s.hotbarConsumeFlags[idx] = info.consume;
+        s.setPluginFlag(idx, info.plugin);
+        s.setConsumeFlag(idx, info.consume);
 
-        s.hotbarMaxUses[idx] = info.maxUses;
+        s.setMaxUses(idx, info.maxUses);
 
         int max = info.maxUses;
         int rem = info.remainingUses;
@@ -142,31 +153,100 @@ public final class HCA_AbilityApi {
             if (rem < 0) rem = 0;
         }
 
-        s.hotbarRemainingUses[idx] = rem;
+        s.setRemainingUses(idx, rem);
 
-        s.hotbarPowerMultipliers[idx] = (info.powerMultiplier > 0.0f) ? info.powerMultiplier : 1.0f;
-        s.hotbarAbilityValues[idx] = info.abilityValue;
+        s.setPowerMultiplier(idx, (info.powerMultiplier > 0.0f) ? info.powerMultiplier : 1.0f);
+        s.setAbilityValue(idx, info.abilityValue);
 
-        s.hotbarIcons[idx] = info.icon;
-        s.hotbarCooldownTimes[idx] = Math.max(0.0f, info.cooldownTime);
-        s.hotbarRechargeTimes[idx] = Math.max(0.0f, info.rechargeTime);
-        s.hotbarStartWithCooldown[idx] = info.startWithCooldown;
-        s.hotbarCooldownUntilMs[idx] = Math.max(0L, info.cooldownUntilMs);
-        s.hotbarLastUpdateMs[idx] = System.currentTimeMillis();
-        s.hotbarRechargeAccumulatorSec[idx] = 0.0;
+        s.setIcon(idx, info.icon);
+        s.setCooldownTime(idx, Math.max(0.0f, info.cooldownTime));
+        s.setRechargeTime(idx, Math.max(0.0f, info.rechargeTime));
+        s.setStartWithCooldown(idx, info.startWithCooldown);
+        s.setCooldownUntilMs(idx, Math.max(0L, info.cooldownUntilMs));
+        long now = System.currentTimeMillis();
+        s.setLastUpdateMs(idx, now);
+        s.setRechargeAccumulatorSec(idx, 0.0);
+        rearmSlotTimers(s, idx, now);
+        s.markRuntimeDirty(idx);
 
         return true;
     }
 
 
+    /**
+     * Refills every limited-use slot that is below max, skipping slots holding exceptAbilityId.
+     * Works on the state directly (no AbilitySlotInfo copies). Returns how many slots changed.
+     */
+    public static int RefillOtherSlots(PlayerRef playerRef, String exceptAbilityId) {
+        if (state == null || playerRef == null) return 0;
+
+        var s = state.peek(playerRef);
+        if (s == null) return 0;
+        long now = System.currentTimeMillis();
+
+        int changed = 0;
+        for (int i = 0; i < 9; i++) {
+            if (!isRefillCandidate(s, i, exceptAbilityId)) continue;
+            refillSlot(s, i, now);
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Refills one random limited-use slot that is below max, skipping slots holding
+     * exceptAbilityId. Returns the refilled slot index, or -1 if none qualified.
+     */
+    public static int RefillRandomOtherSlot(PlayerRef playerRef, String exceptAbilityId) {
+        if (state == null || playerRef == null) return -1;
+
+        var s = state.peek(playerRef);
+        if (s == null) return -1;
+
+        int count = 0;
+        for (int i = 0; i < 9; i++) {
+            if (isRefillCandidate(s, i, exceptAbilityId)) count++;
+        }
+        if (count == 0) return -1;
+
+        int pick = rng.nextInt(count);
+        for (int i = 0; i < 9; i++) {
+            if (!isRefillCandidate(s, i, exceptAbilityId)) continue;
+            if (pick-- == 0) {
+                refillSlot(s, i, System.currentTimeMillis());
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isRefillCandidate(AbilityHotbarState.State s, int idx, String exceptAbilityId) {
+        String id = s.abilityId(idx);
+        if (id == null || id.isBlank()) return false;
+        if (exceptAbilityId != null && id.equalsIgnoreCase(exceptAbilityId)) return false; // ignore self
+
+        int max = s.maxUses(idx);
+        return max > 0 && s.remainingUses(idx) < max;
+    }
+
+    // Same runtime reset SetSlotInformation does, minus the static slot fields
+    private static void refillSlot(AbilityHotbarState.State s, int idx, long now) {
+        s.setRemainingUses(idx, s.maxUses(idx));
+        s.setLastUpdateMs(idx, now);
+        s.setRechargeAccumulatorSec(idx, 0.0);
+        rearmSlotTimers(s, idx, now);
+        s.markRuntimeDirty(idx);
+    }
+
     public static int FindSlotIndexByID(PlayerRef playerRef, String AbilityID) {
         if (state == null) return -1;
         if (playerRef == null) return -1;
         if (AbilityID == null || AbilityID.isBlank()) return -1;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return -1;
         for (int i = 0; i < 9; i++) {
-            String id = s.hotbarAbilityIds[i];
+            String id = s.abilityId(i);
             if (id == null) continue;
             if (id.equalsIgnoreCase(AbilityID)) return i;
         }
@@ -188,15 +268,16 @@ public final class HCA_AbilityApi {
         if (playerRef == null) return false;
         if (slotIndex0to8 < 0 || slotIndex0to8 > 8) return false;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return false;
         long now = System.currentTimeMillis();
         tickRecharge(s, slotIndex0to8, now);
 
         if (isLockedByCooldown(s, slotIndex0to8, now)) return false;
 
-        int max = s.hotbarMaxUses[slotIndex0to8];
+        int max = s.maxUses(slotIndex0to8);
         if (max <= 0) return true;
-        return s.hotbarRemainingUses[slotIndex0to8] > 0;
+        return s.remainingUses(slotIndex0to8) > 0;
     }
 
     public static boolean SpendUse(PlayerRef playerRef, String AbilityID) {
@@ -214,33 +295,45 @@ public final class HCA_AbilityApi {
         if (playerRef == null) return false;
         if (slotIndex0to8 < 0 || slotIndex0to8 > 8) return false;
 
-        var s = state.get(playerRef.getUsername());
-        long now = System.currentTimeMillis();
+        var s = state.peek(playerRef);
+        if (s == null) return false;
+        return spendUse(s, slotIndex0to8, System.currentTimeMillis());
+    }
+
+    static boolean spendUse(AbilityHotbarState.State s, int slotIndex0to8, long now) {
         tickRecharge(s, slotIndex0to8, now);
 
         if (isLockedByCooldown(s, slotIndex0to8, now)) return false;
 
-        int max = s.hotbarMaxUses[slotIndex0to8];
+        int max = s.maxUses(slotIndex0to8);
 
         if (max <= 0) {
             applyPostUseCooldown(s, slotIndex0to8, now);
+            publishSlotReady(s, slotIndex0to8);
             return true;
         }
 
-        int remaining = s.hotbarRemainingUses[slotIndex0to8];
+        int remaining = s.remainingUses(slotIndex0to8);
         if (remaining <= 0) return false;
 
-        s.hotbarRemainingUses[slotIndex0to8] = remaining - 1;
-        s.hotbarRechargeAccumulatorSec[slotIndex0to8] = 0.0;
-        s.hotbarLastUpdateMs[slotIndex0to8] = now;
+        s.setRemainingUses(slotIndex0to8, remaining - 1);
+        s.markRuntimeDirty(slotIndex0to8);
+        s.setRechargeAccumulatorSec(slotIndex0to8, 0.0);
+        s.setLastUpdateMs(slotIndex0to8, now);
+        armNextCharge(s, slotIndex0to8, now);
         applyPostUseCooldown(s, slotIndex0to8, now);
+        publishSlotReady(s, slotIndex0to8);
         return true;
     }
 
     public static void TickAllSlots(PlayerRef playerRef) {
         if (state == null || playerRef == null) return;
-        var s = state.get(playerRef.getUsername());
-        long now = System.currentTimeMillis();
+        var s = state.peek(playerRef);
+        if (s == null) return;
+        tickAllSlots(s, System.currentTimeMillis());
+    }
+
+    static void tickAllSlots(AbilityHotbarState.State s, long now) {
         tickPlayerPowerMultiplier(s, now);
         for (int i = 0; i < 9; i++) {
             tickRecharge(s, i, now);
@@ -250,12 +343,10 @@ public final class HCA_AbilityApi {
     static float getCooldownOverlayRatio(AbilityHotbarState.State s, int idx, long nowMs) {
         if (s == null || idx < 0 || idx > 8) return 0.0f;
 
-        tickRecharge(s, idx, nowMs);
-
-        float cooldownSec = sanitizeTime(s.hotbarCooldownTimes[idx]);
+        float cooldownSec = sanitizeTime(s.cooldownTime(idx));
         if (cooldownSec <= 0.0f) return 0.0f;
 
-        long lockRemainingMs = Math.max(0L, s.hotbarCooldownUntilMs[idx] - nowMs);
+        long lockRemainingMs = Math.max(0L, s.cooldownUntilMs(idx) - nowMs);
         float lockRemainingSec = (lockRemainingMs > 0L) ? (lockRemainingMs / 1000.0f) : 0.0f;
         float ratio = lockRemainingSec / cooldownSec;
 
@@ -264,82 +355,169 @@ public final class HCA_AbilityApi {
         return ratio;
     }
 
+    /** True while any slot still shows a cooldown overlay (the HUD animates during that time). */
+    static boolean hasActiveCooldown(AbilityHotbarState.State s, long nowMs) {
+        if (s == null) return false;
+        for (int i = 0; i < 9; i++) {
+            if (nowMs < s.cooldownUntilMs(i) && s.cooldownTime(i) > 0.0f) return true;
+        }
+        return false;
+    }
+
     private static void tickRecharge(AbilityHotbarState.State s, int idx, long nowMs) {
         if (s == null || idx < 0 || idx > 8) return;
 
-        int max = s.hotbarMaxUses[idx];
+        // O(1) read: nothing can change before the next scheduled charge.
+        long nextCharge = s.nextChargeAtMs(idx);
+        if (nextCharge != NO_EVENT && nowMs < nextCharge) return;
+
+        int max = s.maxUses(idx);
         if (max <= 0) {
-            s.hotbarLastUpdateMs[idx] = nowMs;
+            s.setLastUpdateMs(idx, nowMs);
+            s.setNextChargeAtMs(idx, NO_EVENT);
             return;
         }
 
-        float rechargeSec = sanitizeTime(s.hotbarRechargeTimes[idx]);
+        float rechargeSec = sanitizeTime(s.rechargeTime(idx));
         if (rechargeSec <= 0.0f) {
-            s.hotbarLastUpdateMs[idx] = nowMs;
+            s.setLastUpdateMs(idx, nowMs);
+            s.setNextChargeAtMs(idx, NO_EVENT);
             return;
         }
 
-        long last = s.hotbarLastUpdateMs[idx];
+        long last = s.lastUpdateMs(idx);
         if (last <= 0L) {
-            s.hotbarLastUpdateMs[idx] = nowMs;
+            s.setLastUpdateMs(idx, nowMs);
+            armNextCharge(s, idx, nowMs);
             return;
         }
 
         long deltaMs = nowMs - last;
         if (deltaMs <= 0L) return;
 
-        if (s.hotbarRemainingUses[idx] >= max) {
-            s.hotbarRechargeAccumulatorSec[idx] = 0.0;
-            s.hotbarLastUpdateMs[idx] = nowMs;
+        if (s.remainingUses(idx) >= max) {
+            s.setRechargeAccumulatorSec(idx, 0.0);
+            s.setLastUpdateMs(idx, nowMs);
+            s.setNextChargeAtMs(idx, NO_EVENT);
             return;
         }
 
-        double accumulator = s.hotbarRechargeAccumulatorSec[idx] + (deltaMs / 1000.0);
-        while (accumulator + 1e-9 >= rechargeSec && s.hotbarRemainingUses[idx] < max) {
-            s.hotbarRemainingUses[idx]++;
+        double accumulator = s.rechargeAccumulatorSec(idx) + (deltaMs / 1000.0);
+        while (accumulator + 1e-9 >= rechargeSec && s.remainingUses(idx) < max) {
+            s.setRemainingUses(idx, s.remainingUses(idx) + 1);
+            s.markRuntimeDirty(idx);
             accumulator -= rechargeSec;
         }
 
-        s.hotbarRechargeAccumulatorSec[idx] = Math.max(0.0, accumulator);
-        s.hotbarLastUpdateMs[idx] = nowMs;
+        s.setRechargeAccumulatorSec(idx, Math.max(0.0, accumulator));
+        s.setLastUpdateMs(idx, nowMs);
+        armNextCharge(s, idx, nowMs);
+    }
+
+    /** Computes when the next charge lands (from the current accumulator) and schedules the event. */
+    private static void armNextCharge(AbilityHotbarState.State s, int idx, long nowMs) {
+        int max = s.maxUses(idx);
+        float rechargeSec = sanitizeTime(s.rechargeTime(idx));
+
+        if (max <= 0 || rechargeSec <= 0.0f || s.remainingUses(idx) >= max) {
+            s.setNextChargeAtMs(idx, NO_EVENT);
+            timers.cancel(s, idx, AbilityTimerWheel.CHARGE);
+            return;
+        }
+
+        double leftSec = Math.max(0.0, rechargeSec - s.rechargeAccumulatorSec(idx));
+        long at = nowMs + Math.max(1L, (long) Math.ceil(leftSec * 1000.0));
+
+        s.setNextChargeAtMs(idx, at);
+        timers.schedule(s, idx, AbilityTimerWheel.CHARGE, at);
+    }
+
+    /** Re-schedules charge/cooldown events after a slot's runtime was replaced (bind, metadata load, SetSlotInformation). */
+    static void rearmSlotTimers(AbilityHotbarState.State s, int idx, long nowMs) {
+        if (s == null || idx < 0 || idx > 8) return;
+
+        armNextCharge(s, idx, nowMs);
+
+        long cooldownUntil = s.cooldownUntilMs(idx);
+        if (cooldownUntil > nowMs) {
+            timers.schedule(s, idx, AbilityTimerWheel.COOLDOWN_END, cooldownUntil);
+        } else {
+            timers.cancel(s, idx, AbilityTimerWheel.COOLDOWN_END);
+        }
+        publishSlotReady(s, idx);
+    }
+
+    /**
+     * Publishes when a press on slot idx can next fire, for the packet-thread pre-check.
+     * Must be called whenever a slot may have become usable sooner (SetSlotInformation,
+     * refills, bind); expiring cooldowns and charges need nothing, the time just passes.
+     */
+    static void publishSlotReady(AbilityHotbarState.State s, int idx) {
+        long ready = 0L;
+
+        // Only plugin abilities are gated; root interactions always run.
+        String id = s.abilityId(idx);
+        if (s.pluginFlag(idx) && id != null && !id.isBlank()) {
+            ready = s.cooldownUntilMs(idx);
+
+            long nextCharge = s.nextChargeAtMs(idx);
+            if (s.maxUses(idx) > 0 && s.remainingUses(idx) <= 0 && nextCharge != NO_EVENT) {
+                ready = Math.max(ready, nextCharge);
+            }
+        }
+
+        s.inputReadyAtMs.set(idx, ready);
+    }
+
+    static void publishAllSlotsReady(AbilityHotbarState.State s) {
+        for (int i = 0; i < 9; i++) publishSlotReady(s, i);
     }
 
     private static boolean isLockedByCooldown(AbilityHotbarState.State s, int idx, long nowMs) {
         if (s == null || idx < 0 || idx > 8) return false;
-        return nowMs < s.hotbarCooldownUntilMs[idx];
+        return nowMs < s.cooldownUntilMs(idx);
     }
 
     private static void applyPostUseCooldown(AbilityHotbarState.State s, int idx, long nowMs) {
         if (s == null || idx < 0 || idx > 8) return;
 
-        float cooldownSec = sanitizeTime(s.hotbarCooldownTimes[idx]);
+        float cooldownSec = sanitizeTime(s.cooldownTime(idx));
         if (cooldownSec <= 0.0f) return;
 
         long lockMs = (long) Math.max(0L, Math.round(cooldownSec * 1000.0f));
-        s.hotbarCooldownUntilMs[idx] = nowMs + lockMs;
+        s.setCooldownUntilMs(idx, nowMs + lockMs);
+        s.markRuntimeDirty(idx);
+        timers.schedule(s, idx, AbilityTimerWheel.COOLDOWN_END, nowMs + lockMs);
     }
 
     public static void InitializeSlotRuntime(AbilityHotbarState.State s, int idx) {
         if (s == null || idx < 0 || idx > 8) return;
+        initializeSlotRuntime(s, idx, System.currentTimeMillis());
+    }
 
-        long nowMs = System.currentTimeMillis();
-
-        int maxUses = s.hotbarMaxUses[idx];
-        s.hotbarRemainingUses[idx] = (maxUses > 0) ? maxUses : 0;
+    /** InitializeSlotRuntime with the clock read once by the caller (bar binds do all 9 slots). */
+    static void initializeSlotRuntime(AbilityHotbarState.State s, int idx, long nowMs) {
+        int maxUses = s.maxUses(idx);
+        s.setRemainingUses(idx, (maxUses > 0) ? maxUses : 0);
 
-        s.hotbarRechargeAccumulatorSec[idx] = 0.0;
-        s.hotbarLastUpdateMs[idx] = nowMs;
+        s.setRechargeAccumulatorSec(idx, 0.0);
+        s.setLastUpdateMs(idx, nowMs);
+        s.setNextChargeAtMs(idx, NO_EVENT);
+        timers.cancel(s, idx, AbilityTimerWheel.CHARGE);
 
-        float cooldownSec = sanitizeTime(s.hotbarCooldownTimes[idx]);
-        if (s.hotbarStartWithCooldown[idx] && cooldownSec > 0.0f) {
+        float cooldownSec = sanitizeTime(s.cooldownTime(idx));
+        if (s.startWithCooldown(idx) && cooldownSec > 0.0f) {
             long lockMs = (long) Math.max(0L, Math.round(cooldownSec * 1000.0f));
-            s.hotbarCooldownUntilMs[idx] = nowMs + lockMs;
+            s.setCooldownUntilMs(idx, nowMs + lockMs);
+            timers.schedule(s, idx, AbilityTimerWheel.COOLDOWN_END, nowMs + lockMs);
         } else {
-            s.hotbarCooldownUntilMs[idx] = 0L;
+            s.setCooldownUntilMs(idx, 0L);
+            timers.cancel(s, idx, AbilityTimerWheel.COOLDOWN_END);
         }
     }
 
-    private static float sanitizeTime(float time) {
+    /** NaN / infinite / negative times count as 0 (also used when compiling WeaponBarTemplate). */
+    static float sanitizeTime(float time) {
         if (Float.isNaN(time) || Float.isInfinite(time)) return 0.0f;
         return Math.max(0.0f, time);
     }
@@ -349,10 +527,7 @@ public final class HCA_AbilityApi {
         if (Context.Player == null) return;
         if (state == null) return;
 
-        Context.Player.getHudManager().setCustomHud(
-                Context.PlayerRef,
-                new AbilityHotbarHud(Context.PlayerRef, state)
-        );
+        AbilityHotbarHud.refresh(Context.Player, Context.PlayerRef, state);
     }
 
     public static boolean SetPlayerPowerMultiplier(PlayerRef playerRef, float newValue) {
@@ -360,7 +535,8 @@ public final class HCA_AbilityApi {
         if (playerRef == null) return false;
         if (newValue <= 0.0f) newValue = 1.0f;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return false;
         tickPlayerPowerMultiplier(s, System.currentTimeMillis());
         s.PlayerPowerMultiplier = newValue;
         s.PlayerPowerMultiplierTemporaryActive = false;
@@ -375,7 +551,8 @@ public final class HCA_AbilityApi {
         if (durationSeconds <= 0) return false;
         if (newValue <= 0.0f) newValue = 1.0f;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return false;
         long now = System.currentTimeMillis();
         tickPlayerPowerMultiplier(s, now);
 
@@ -392,7 +569,8 @@ public final class HCA_AbilityApi {
     public static float GetPlayerPowerMultiplier(PlayerRef playerRef) {
         if (state == null || playerRef == null) return 1.0f;
 
-        var s = state.get(playerRef.getUsername());
+        var s = state.peek(playerRef);
+        if (s == null) return 1.0f;
         tickPlayerPowerMultiplier(s, System.currentTimeMillis());
         float pm = s.PlayerPowerMultiplier;
         if (pm <= 0.0f) pm = 1.0f;
@@ -420,8 +598,10 @@ public final class HCA_AbilityApi {
         int idx = FindSlotIndexByID(playerRef, AbilityID);
         if (idx < 0) return false;
 
-        var s = state.get(playerRef.getUsername());
-        return s.hotbarStringFlags[idx].contains(value);
+        var s = state.peek(playerRef);
+        if (s == null) return false;
+        List<String> list = s.hotbarStringFlags[idx];
+        return list != null && list.contains(value);
     }
 
     public static boolean AddAbilityString(PlayerRef playerRef, String AbilityID, String value) {
@@ -431,8 +611,9 @@ public final class HCA_AbilityApi {
         int idx = FindSlotIndexByID(playerRef, AbilityID);
         if (idx < 0) return false;
 
-        var s = state.get(playerRef.getUsername());
-        List<String> list = s.hotbarStringFlags[idx];
+        var s = state.peek(playerRef);
+        if (s == null) return false;
+        List<String> list = s.stringFlags(idx);
 
         if (list.contains(value)) return false;
 
@@ -447,8 +628,10 @@ public final class HCA_AbilityApi {
         int idx = FindSlotIndexByID(playerRef, AbilityID);
         if (idx < 0) return false;
 
-        var s = state.get(playerRef.getUsername());
-        return s.hotbarStringFlags[idx].remove(value);
+        var s = state.peek(playerRef);
+        if (s == null) return false;
+        List<String> list = s.hotbarStringFlags[idx];
+        return list != null && list.remove(value);
     }
 
     private static final class EmptyHud extends CustomUIHud {
@@ -460,8 +643,12 @@ public final class HCA_AbilityApi {
         if (player == null || playerRef == null) return;
 
         if (state != null) {
-            var s = state.get(playerRef.getUsername());
-            if (s != null) s.enabled = false;
+            var s = state.peek(playerRef);
+            if (s != null) {
+                s.enabled = false;
+                s.hud = null;
+                s.publishInput();
+            }
         }
 
         player.getHudManager().setCustomHud(playerRef, new EmptyHud(playerRef));
@@ -473,7 +660,7 @@ public final class HCA_AbilityApi {
 
         if (state == null) return true;
 
-        var s = state.get(context.PlayerRef.getUsername());
+        var s = state.peek(context.PlayerRef);
         if (s == null) return true;
 
         int slot1to9 = s.selectedAbilitySlot;
@@ -481,7 +668,7 @@ public final class HCA_AbilityApi {
 
         int slot0to8 = slot1to9 - 1;
 
-        if (!s.hotbarConsumeFlags[slot0to8]) return true;
+        if (!s.consumeFlag(slot0to8)) return true;
 
         Inventory inv = context.Player.getInventory();
         ItemStack inHand = inv.getItemInHand();
@@ -9,9 +9,6 @@ import com.hypixel.hytale.server.core.modules.entitystats.EntityStatMap;
 import com.hypixel.hytale.server.core.modules.entitystats.EntityStatValue;
 import com.hypixel.hytale.server.core.modules.entitystats.asset.DefaultEntityStatTypes;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import static com.abilities.abilitiesplugin.HCA_AbilityApi.rng;
 
 public class HCA_DoAbility implements IAbilityPlugin {
@@ -22,6 +19,28 @@ public class HCA_DoAbility implements IAbilityPlugin {
         this.externalChain = externalChain;
     }
 
+    /**
+     * Puts every built-in ability straight into the dispatch table, so they are
+     * found with one lookup. Keep in sync with the switch below (legacy path).
+     */
+    public void registerAbilities() {
+        AbilityDispatch.registerAbility("combat_abilities:randomteleport", guarded(HCA_DoAbility::abilityRandomTeleport));
+        AbilityDispatch.registerAbility("combat_abilities:trololol", guarded(HCA_DoAbility::abilityTrololol));
+        AbilityDispatch.registerAbility("combat_abilities:fullreload", guarded(this::abilityFullReload));
+        AbilityDispatch.registerAbility("combat_abilities:reloadrandom", guarded(HCA_DoAbility::abilityReloadRandom));
+        AbilityDispatch.registerAbility("combat_abilities:empty", guarded(this::abilityEmpty));
+        AbilityDispatch.registerAbility("combat_abilities:coinflip", guarded(HCA_DoAbility::abilityCoinflip));
+        AbilityDispatch.registerAbility("combat_abilities:full_heal", guarded(HCA_DoAbility::abilityFullHeal));
+        AbilityDispatch.registerAbility("combat_abilities:teleport_axis", guarded(HCA_DoAbility::abilityTeleportAxis));
+        AbilityDispatch.registerAbility("combat_abilities:set_multiplication_power", guarded(HCA_DoAbility::abilitySetMultiplicationPower));
+        AbilityDispatch.registerAbility("combat_abilities:temporary_multiplication_power", guarded(HCA_DoAbility::abilitySetTempMultiplicationPower));
+    }
+
+    // Same preconditions the switch entry point checks
+    private static IAbilityPlugin guarded(IAbilityPlugin ability) {
+        return (data, ctx) -> ctx != null && ctx.PlayerRef != null && ability.HCA_DoAbility(data, ctx);
+    }
+
     @Override
     public boolean HCA_DoAbility(PackagedAbilityData Data, AbilityContext Context) {
         if (Data == null || Context == null || Context.PlayerRef == null) return false;
@@ -262,25 +281,7 @@ public class HCA_DoAbility implements IAbilityPlugin {
 
     public boolean abilityFullReload(PackagedAbilityData data, AbilityContext Context) {
 
-        HCA_AbilityApi.AbilitySlotInfo[] all = HCA_AbilityApi.GetAllAbilities(Context.PlayerRef);
-
-        boolean changed = false;
-
-        for (HCA_AbilityApi.AbilitySlotInfo info : all) {
-            if (info == null) continue;
-            if (info.id == null || info.id.isBlank()) continue;
-
-            if (info.id.equalsIgnoreCase(data.ID)) continue; // ignore self
-            if (info.maxUses <= 0) continue; // unlimited or no-uses slot
-
-            if (info.remainingUses < info.maxUses) {
-                info.remainingUses = info.maxUses;
-                HCA_AbilityApi.SetSlotInformation(Context.PlayerRef, info);
-                changed = true;
-            }
-        }
-
-        if (changed) {
+        if (HCA_AbilityApi.RefillOtherSlots(Context.PlayerRef, data.ID) > 0) {
             HCA_AbilityApi.UpdateHud(Context);
         }
 
@@ -289,31 +290,10 @@ public class HCA_DoAbility implements IAbilityPlugin {
 
     public static boolean abilityReloadRandom(PackagedAbilityData data, AbilityContext Context) {
 
-        HCA_AbilityApi.AbilitySlotInfo[] all = HCA_AbilityApi.GetAllAbilities(Context.PlayerRef);
-
-        List<HCA_AbilityApi.AbilitySlotInfo> candidates = new ArrayList<>();
-        for (HCA_AbilityApi.AbilitySlotInfo info : all) {
-            if (info == null) continue;
-            if (info.id == null || info.id.isBlank()) continue;
-
-            if (info.id.equalsIgnoreCase(data.ID)) continue; // ignore self
-            if (info.maxUses <= 0) continue;
-            if (info.remainingUses >= info.maxUses) continue;
-
-            candidates.add(info);
-        }
-
-        if (!candidates.isEmpty()) {
-            int pick = HCA_AbilityApi.rng.nextInt(candidates.size());
-            HCA_AbilityApi.AbilitySlotInfo chosen = candidates.get(pick);
-
-            chosen.remainingUses = chosen.maxUses;
-            HCA_AbilityApi.SetSlotInformation(Context.PlayerRef, chosen);
-
+        if (HCA_AbilityApi.RefillRandomOtherSlot(Context.PlayerRef, data.ID) >= 0) {
             HCA_AbilityApi.UpdateHud(Context);
         }
 
-
         return true;
     }
 
@@ -0,0 +1,33 @@
+package com.abilities.abilitiesplugin;
+
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractCommandCollection;
+import com.hypixel.hytale.server.core.command.system.basecommands.CommandBase;
+
+import javax.annotation.Nonnull;
+
+/** /hca admin commands. */
+public class HcaCommand extends AbstractCommandCollection {
+
+    public HcaCommand(PackReloader reloader) {
+        super("hca", "Hotbar ability system admin commands.");
+        this.addSubCommand(new ReloadCommand(reloader));
+    }
+
+    private static final class ReloadCommand extends CommandBase {
+
+        private final PackReloader reloader;
+
+        ReloadCommand(PackReloader reloader) {
+            super("reload", "Reloads HCA weapon packs and rebinds enabled ability bars.");
+            this.reloader = reloader;
+        }
+
+        @Override
+        protected void executeSync(@Nonnull CommandContext ctx) {
+            ctx.sendMessage(Message.raw("Reloading HCA packs..."));
+            reloader.reload("command").thenAccept(summary -> ctx.sendMessage(Message.raw(summary)));
+        }
+    }
+}
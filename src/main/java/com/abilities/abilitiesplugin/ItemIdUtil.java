@@ -1,8 +1,44 @@
 package com.abilities.abilitiesplugin;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public final class ItemIdUtil {
     private ItemIdUtil() {}
 
+    // Bounded: once full, new ids are still normalized correctly, just not cached.
+    private static final int MAX_CACHED_IDS = Math.max(256, Integer.getInteger("hca.itemIdCacheSize", 8192));
+
+    // raw engine/pack id -> canonical id
+    private static final Map<String, String> RAW_TO_CANONICAL = new ConcurrentHashMap<>();
+
+    // normalized id -> the one shared instance
+    private static final Map<String, String> CANONICAL = new ConcurrentHashMap<>();
+
+    /**
+     * Normalized id, interned: equal ids come back as the same String instance, so ids
+     * from the registry, the bound state and the held stack compare by reference.
+     * Repeated raw ids skip the string processing entirely.
+     */
+    public static String canonicalItemId(String raw) {
+        if (raw == null) return null;
+
+        String c = RAW_TO_CANONICAL.get(raw);
+        if (c != null) return c;
+
+        String n = normalizeItemId(raw);
+        if (n == null) return null;
+
+        c = CANONICAL.get(n);
+        if (c == null) {
+            if (CANONICAL.size() >= MAX_CACHED_IDS) return n;
+            String prev = CANONICAL.putIfAbsent(n, n);
+            c = (prev != null) ? prev : n;
+        }
+
+        if (RAW_TO_CANONICAL.size() < MAX_CACHED_IDS) RAW_TO_CANONICAL.putIfAbsent(raw, c);
+        return c;
+    }
 
     public static String normalizeItemId(String s) {
         if (s == null) return null;
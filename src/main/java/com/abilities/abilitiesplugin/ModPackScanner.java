@@ -1,12 +1,14 @@
 package com.abilities.abilitiesplugin;
 
-import com.google.gson.*;
 import com.hypixel.hytale.server.core.plugin.PluginManager;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -17,12 +19,11 @@ import java.util.zip.ZipFile;
  * - loads packs from every plugin jar resources (HCA/*.json)
  * - optionally loads packs from mods folder jar files (HCA/*.json)
  *
- * Packs are applied directly to WeaponRegistry (no queue).
+ * Sources are read and parsed concurrently, then applied to WeaponRegistry
+ * one by one in the order above.
  */
 public final class ModPackScanner {
 
-    private static final Gson GSON = new GsonBuilder().create();
-
     private ModPackScanner() {}
 
     // -----------------------------
@@ -44,7 +45,7 @@ public final class ModPackScanner {
         }
     }
 
-    /** Reads files from disk relative to a root folder. */
+    /** Reads files from disk relative to a root folder (memory-mapped, no heap copy). */
     public static final class FileSystemAccess implements ResourceAccess {
         private final Path root;
         public FileSystemAccess(Path root) { this.root = root; }
@@ -55,18 +56,73 @@ public final class ModPackScanner {
             String rel = normalizePath(resourcePath);
             Path p = root.resolve(rel).normalize();
             if (!Files.exists(p) || Files.isDirectory(p)) return null;
-            return Files.newInputStream(p);
+            return openMapped(p);
+        }
+    }
+
+    /** Maps the file read-only and streams from the mapping; the parser decodes straight from it. */
+    private static InputStream openMapped(Path p) throws IOException {
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size == 0L) return InputStream.nullInputStream();
+            if (size > Integer.MAX_VALUE) return Files.newInputStream(p);
+
+            // The mapping stays valid after the channel is closed
+            return new MappedInputStream(ch.map(FileChannel.MapMode.READ_ONLY, 0L, size));
         }
     }
 
-    /** Reads entries from a jar/zip. */
+    private static final class MappedInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        MappedInputStream(ByteBuffer buf) { this.buf = buf; }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? (buf.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buf.hasRemaining()) return -1;
+
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+    }
+
+    /**
+     * Reads entries from a jar/zip. With a pool the jar stays open for the whole scan;
+     * without one every open() reopens the jar.
+     */
     public static final class ZipResourceAccess implements ResourceAccess {
         private final Path jarPath;
-        public ZipResourceAccess(Path jarPath) { this.jarPath = jarPath; }
+        private final ZipFilePool pool;
+
+        public ZipResourceAccess(Path jarPath) { this(jarPath, null); }
+
+        ZipResourceAccess(Path jarPath, ZipFilePool pool) {
+            this.jarPath = jarPath;
+            this.pool = pool;
+        }
 
         @Override
         public InputStream open(String resourcePath) throws IOException {
             String p = normalizePath(resourcePath);
+
+            if (pool != null) {
+                ZipFile shared = pool.get(jarPath);
+                ZipEntry e = shared.getEntry(p);
+                return (e == null) ? null : shared.getInputStream(e);
+            }
+
             ZipFile zip = new ZipFile(jarPath.toFile());
             ZipEntry e = zip.getEntry(p);
             if (e == null) {
@@ -87,33 +143,178 @@ public final class ModPackScanner {
     // -----------------------------
     // Public entry point
     // -----------------------------
+
+    /**
+     * Loads every pack in three phases:
+     * 1) discover sources in load order (cheap, sequential)
+     * 2) read + parse every source on a bounded pool (jar enumeration, JSON, index walks)
+     * 3) apply the parsed packs to the registry sequentially, in discovery order
+     */
     public static void loadAllPacks(
             WeaponRegistry weaponRegistry,
             ClassLoader hotbarLoader
+    ) {
+        loadAllPacks(weaponRegistry, hotbarLoader, null);
+    }
+
+    /**
+     * Same as above; jar scan results are cached in {@code cacheFile} (null = no cache)
+     * so unchanged jars are not reopened on the next load.
+     */
+    public static void loadAllPacks(
+            WeaponRegistry weaponRegistry,
+            ClassLoader hotbarLoader,
+            Path cacheFile
     ) {
         if (weaponRegistry == null) return;
         if (hotbarLoader == null) return;
 
-        int applied = 0;
+        long t0 = System.nanoTime();
+
+        PackScanCache cache = PackScanCache.load(cacheFile);
+
+        // Jars opened during the scan stay open until it ends
+        ZipFilePool zips = new ZipFilePool();
+
+        // ---- Phase 1: discovery ----
+        List<PackSource> sources = new ArrayList<>();
 
         // ✅ REQUIRED: base HCA pack must be applied first
-        applied += applyHotbarPack(weaponRegistry, hotbarLoader);
+        sources.add(new PackSource("Hotbar", () -> scanHotbarPack(hotbarLoader)));
 
-        applied += applyPluginDataDirPacks(weaponRegistry);
+        discoverPluginDataDirs(sources);
 
-        applied += applyPluginJarResourcePacks(weaponRegistry);
+        discoverPluginJars(sources, cache, zips);
 
-        applied += applyModsFolderJarPacks(weaponRegistry);
+        discoverModsFolderJars(sources, cache, zips);
+
+        long t1 = System.nanoTime();
+
+        // ---- Phase 2: parallel scan/parse ----
+        List<List<ParsedPack>> scanned;
+        try {
+            scanned = scanAll(sources);
+        } finally {
+            zips.close();
+        }
+
+        cache.save();
+
+        long t2 = System.nanoTime();
+
+        // ---- Phase 3: sequential apply (same order as before) ----
+        int applied = 0;
+        for (int i = 0; i < sources.size(); i++) {
+            PackSource src = sources.get(i);
+            for (ParsedPack pack : scanned.get(i)) {
+                weaponRegistry.applyParsedPack(pack);
+                applied++;
+                System.out.println("[HCA] " + src.kind + " pack applied=true tag=" + pack.SourceTag);
+            }
+        }
+
+        long t3 = System.nanoTime();
 
         System.out.println("[HCA] ModPackScanner: total packs applied=" + applied);
+
+        // Resolve every override chain now so runtime lookups never mutate the registry.
+        weaponRegistry.publishSnapshot();
+
+        long t4 = System.nanoTime();
+
+        System.out.println("[HCA] ModPackScanner timing: sources=" + sources.size()
+                + " discover=" + millis(t0, t1) + "ms"
+                + " scan=" + millis(t1, t2) + "ms"
+                + " apply=" + millis(t2, t3) + "ms"
+                + " snapshot=" + millis(t3, t4) + "ms"
+                + " total=" + millis(t0, t4) + "ms"
+                + " cache(" + cache.describeStats() + ")"
+                + " zip(" + zips.describeStats() + ")");
+    }
+
+    // -----------------------------
+    // Scan plumbing
+    // -----------------------------
+
+    private interface PackScan {
+        List<ParsedPack> scan() throws Exception;
+    }
+
+    /** One discovered source (a jar, a dataDir, the Hotbar pack). Scanned independently. */
+    private static final class PackSource {
+        final String kind;
+        final PackScan scan;
+
+        PackSource(String kind, PackScan scan) {
+            this.kind = kind;
+            this.scan = scan;
+        }
+    }
+
+    private static List<List<ParsedPack>> scanAll(List<PackSource> sources) {
+        int threads = Math.max(1, Math.min(sources.size(),
+                Integer.getInteger("hca.scanThreads", Math.min(8, Runtime.getRuntime().availableProcessors()))));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger n = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "HCA-PackScan-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        try {
+            List<Future<List<ParsedPack>>> futures = new ArrayList<>(sources.size());
+            for (PackSource src : sources) {
+                futures.add(pool.submit(src.scan::scan));
+            }
+
+            // Collect in submission order so apply order never depends on timing
+            List<List<ParsedPack>> out = new ArrayList<>(sources.size());
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    out.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                    System.out.println("[HCA] " + sources.get(i).kind + " scan error: " + cause.getMessage());
+                    out.add(List.of());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    out.add(List.of());
+                }
+            }
+            return out;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static long millis(long fromNs, long toNs) {
+        return (toNs - fromNs) / 1_000_000L;
     }
 
     // -----------------------------
     // Step 1: Hotbar built-in pack
     // -----------------------------
-    private static int applyHotbarPack(WeaponRegistry weaponRegistry, ClassLoader hotbarLoader) {
+    private static List<ParsedPack> scanHotbarPack(ClassLoader hotbarLoader) {
         String path = "HCA/HCA_pack.json";
 
+        // Build-time bundle first (JSON below stays the fallback)
+        try (InputStream bundleIn = hotbarLoader.getResourceAsStream(PackBundle.ENTRY_NAME)) {
+            if (bundleIn != null) {
+                for (ParsedPack pack : PackBundle.read(bundleIn, resourceSources(hotbarLoader))) {
+                    if (!path.equals(pack.SourceTag)) continue;
+                    pack.SourceTag = "HotbarAbilities";
+                    return List.of(pack);
+                }
+            }
+        } catch (Throwable t) {
+            System.out.println("[HCA] Hotbar pack bundle not used, using JSON: " + t.getMessage());
+        }
+
         // Normal: load from resources inside jar
         try (InputStream in = hotbarLoader.getResourceAsStream(path)) {
 
@@ -125,50 +326,43 @@ public final class ModPackScanner {
 
                 if (pick == null) {
                     System.out.println("[HCA] Missing Hotbar pack resource: " + path);
-                    return 0;
+                    return List.of();
                 }
 
                 try {
-                    byte[] bytes = Files.readAllBytes(pick);
-
                     // root should be folder containing "HCA/"
                     // pick = .../resources/HCA/HCA_pack.json
                     // root = .../resources
                     Path root = pick.getParent().getParent();
+                    FileSystemAccess access = new FileSystemAccess(root);
 
-                    boolean ok = applyPackBytes(
-                            weaponRegistry,
-                            new FileSystemAccess(root),
-                            bytes,
-                            "HotbarAbilities:devFolder"
-                    );
+                    ParsedPack pack;
+                    try (InputStream packIn = access.open("HCA/HCA_pack.json")) {
+                        pack = parsePack(access, packIn, "HotbarAbilities:devFolder");
+                    }
 
-                    System.out.println("[HCA] Hotbar pack (dev folder) applied=" + ok + " from=" + pick);
-                    return ok ? 1 : 0;
+                    System.out.println("[HCA] Hotbar pack (dev folder) parsed=" + (pack != null) + " from=" + pick);
+                    return (pack == null) ? List.of() : List.of(pack);
 
                 } catch (Throwable t2) {
                     System.out.println("[HCA] Failed reading Hotbar pack from dev folder: " + t2.getMessage());
-                    return 0;
+                    return List.of();
                 }
             }
 
-            byte[] bytes = in.readAllBytes();
-            boolean ok = applyPackBytes(weaponRegistry, new ClassLoaderAccess(hotbarLoader), bytes, "HotbarAbilities");
-            System.out.println("[HCA] Hotbar pack applied=" + ok);
-            return ok ? 1 : 0;
+            ParsedPack pack = parsePack(new ClassLoaderAccess(hotbarLoader), in, "HotbarAbilities");
+            return (pack == null) ? List.of() : List.of(pack);
 
         } catch (Throwable t) {
             System.out.println("[HCA] Failed reading Hotbar pack: " + t.getMessage());
-            return 0;
+            return List.of();
         }
     }
 
     // -----------------------------
     // Step 2: plugin data dirs
     // -----------------------------
-    private static int applyPluginDataDirPacks(WeaponRegistry weaponRegistry) {
-        int applied = 0;
-
+    private static void discoverPluginDataDirs(List<PackSource> sources) {
         for (var plugin : PluginManager.get().getPlugins()) {
             try {
                 Path dataDir = plugin.getDataDirectory();
@@ -177,42 +371,44 @@ public final class ModPackScanner {
                 Path hcaDir = dataDir.resolve("hca");
                 if (!Files.isDirectory(hcaDir)) continue;
 
-                List<Path> jsonFiles = new ArrayList<>();
-                try (DirectoryStream<Path> ds = Files.newDirectoryStream(hcaDir, "*.json")) {
-                    for (Path p : ds) jsonFiles.add(p);
-                }
-
-                jsonFiles.sort(Comparator.comparing(
-                        p -> p.getFileName().toString().toLowerCase(Locale.ROOT)
-                ));
+                String pluginName = plugin.getName();
+                sources.add(new PackSource("dataDir", () -> scanDataDir(pluginName, hcaDir)));
+            } catch (Throwable t) {
+                System.out.println("[HCA] dataDir scan error for " + plugin + ": " + t.getMessage());
+            }
+        }
+    }
 
-                for (Path packPath : jsonFiles) {
-                    byte[] bytes = Files.readAllBytes(packPath);
+    private static List<ParsedPack> scanDataDir(String pluginName, Path hcaDir) throws IOException {
+        List<Path> jsonFiles = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(hcaDir, "*.json")) {
+            for (Path p : ds) jsonFiles.add(p);
+        }
 
-                    // Root = the plugin's HCA dir
-                    ResourceAccess access = new FileSystemAccess(hcaDir);
+        jsonFiles.sort(Comparator.comparing(
+                p -> p.getFileName().toString().toLowerCase(Locale.ROOT)
+        ));
 
-                    String tag = plugin.getName() + ":dataDir:" + packPath.getFileName();
-                    boolean ok = applyPackBytes(weaponRegistry, access, bytes, tag);
+        // Root = the plugin's HCA dir
+        ResourceAccess access = new FileSystemAccess(hcaDir);
 
-                    if (ok) applied++;
+        List<ParsedPack> out = new ArrayList<>();
+        for (Path packPath : jsonFiles) {
+            String tag = pluginName + ":dataDir:" + packPath.getFileName();
 
-                    System.out.println("[HCA] dataDir pack applied=" + ok + " tag=" + tag);
-                }
-            } catch (Throwable t) {
-                System.out.println("[HCA] dataDir scan error for " + plugin + ": " + t.getMessage());
+            ParsedPack pack;
+            try (InputStream in = access.open(packPath.getFileName().toString())) {
+                pack = parsePack(access, in, tag);
             }
+            if (pack != null) out.add(pack);
         }
-
-        return applied;
+        return out;
     }
 
     // -----------------------------
     // Step 2.5: plugin jar resource scan
     // -----------------------------
-    private static int applyPluginJarResourcePacks(WeaponRegistry weaponRegistry) {
-        int applied = 0;
-
+    private static void discoverPluginJars(List<PackSource> sources, PackScanCache cache, ZipFilePool zips) {
         for (var plugin : PluginManager.get().getPlugins()) {
             if (plugin == null) continue;
 
@@ -237,208 +433,201 @@ public final class ModPackScanner {
             if (!jarLower.endsWith(".jar")) continue;
             if (!Files.exists(jarPath)) continue;
 
-            String jarName = jarPath.getFileName().toString();
-
-            try (ZipFile zip = new ZipFile(jarPath.toFile())) {
-                List<String> packEntries = new ArrayList<>();
-
-                // Standard pack name
-                if (zip.getEntry("HCA/HCA_pack.json") != null) {
-                    packEntries.add("HCA/HCA_pack.json");
-                }
-
-                // Alternate names: HCA/*hca_pack.json (your existing behavior)
-                Enumeration<? extends ZipEntry> en = zip.entries();
-                while (en.hasMoreElements()) {
-                    ZipEntry e = en.nextElement();
-                    String name = e.getName();
-                    if (name == null) continue;
-
-                    String n = name.replace("\\", "/");
-                    if (!n.startsWith("HCA/")) continue;
-                    if (!n.toLowerCase(Locale.ROOT).endsWith("hca_pack.json")) continue;
-
-                    packEntries.add(n);
-                }
-
-                packEntries.sort(String.CASE_INSENSITIVE_ORDER);
-                if (packEntries.isEmpty()) continue;
+            Path jar = jarPath;
+            String tagPrefix = "PLUGINJAR::" + jar.getFileName() + "::";
 
-                ResourceAccess access = new ZipResourceAccess(jarPath);
-
-                for (String entryName : packEntries) {
-                    ZipEntry entry = zip.getEntry(entryName);
-                    if (entry == null) continue;
-
-                    byte[] bytes;
-                    try (InputStream in = zip.getInputStream(entry)) {
-                        bytes = in.readAllBytes();
-                    }
-
-                    String tag = "PLUGINJAR::" + jarName + "::" + entryName;
-                    boolean ok = applyPackBytes(weaponRegistry, access, bytes, tag);
-                    if (ok) applied++;
-
-                    System.out.println("[HCA] plugin-jar pack applied=" + ok + " tag=" + tag);
-                }
-            } catch (Throwable t) {
-                System.out.println("[HCA] failed scanning plugin jar " + jarName + ": " + t.getMessage());
-            }
+            // Alternate names: HCA/*hca_pack.json (your existing behavior)
+            sources.add(new PackSource("plugin-jar", () -> scanJarCached(cache, zips, "plugin-jar", jar, "hca_pack.json", tagPrefix)));
         }
-
-        return applied;
     }
 
     // -----------------------------
     // Step 3: mods folder jar scan
     // -----------------------------
-    private static int applyModsFolderJarPacks(WeaponRegistry weaponRegistry) {
+    private static void discoverModsFolderJars(List<PackSource> sources, PackScanCache cache, ZipFilePool zips) {
         Path modsDir = findModsDir();
         if (modsDir == null) {
             System.out.println("[HCA] mods folder not found; skipping jar scan");
-            return 0;
+            return;
         }
 
-        int applied = 0;
         List<Path> jars = new ArrayList<>();
 
         try (DirectoryStream<Path> ds = Files.newDirectoryStream(modsDir, "*.jar")) {
             for (Path p : ds) jars.add(p);
         } catch (Throwable t) {
             System.out.println("[HCA] failed listing mods folder: " + t.getMessage());
-            return 0;
+            return;
         }
 
         jars.sort(Comparator.comparing(p -> p.getFileName().toString().toLowerCase(Locale.ROOT)));
 
         for (Path jarPath : jars) {
-            String jarName = jarPath.getFileName().toString();
-            try (ZipFile zip = new ZipFile(jarPath.toFile())) {
+            String tagPrefix = jarPath.getFileName() + "::";
 
-                List<String> packEntries = new ArrayList<>();
+            // Alternate names: HCA/*_hca_pack.json
+            sources.add(new PackSource("jar", () -> scanJarCached(cache, zips, "jar", jarPath, "_hca_pack.json", tagPrefix)));
+        }
+    }
 
-                // Standard pack name
-                if (zip.getEntry("HCA/HCA_pack.json") != null) {
-                    packEntries.add("HCA/HCA_pack.json");
-                }
+    /** Serves an unchanged jar from the scan cache; otherwise scans it and records the result. */
+    private static List<ParsedPack> scanJarCached(
+            PackScanCache cache,
+            ZipFilePool zips,
+            String kind,
+            Path jarPath,
+            String packSuffix,
+            String tagPrefix
+    ) throws IOException {
+        // Stamp before reading so a jar replaced mid-scan is simply rescanned next time
+        long size = Files.size(jarPath);
+        long modifiedMs = Files.getLastModifiedTime(jarPath).toMillis();
+        String key = kind + "|" + jarPath.toAbsolutePath().normalize();
+
+        List<ParsedPack> cached = cache.lookup(key, size, modifiedMs);
+        if (cached != null) return cached;
+
+        List<ParsedPack> packs = scanJar(zips, jarPath, packSuffix, tagPrefix);
+        if (packs == null) return List.of(); // unreadable jar: don't cache, retry next load
+
+        cache.store(key, size, modifiedMs, packs);
+        return packs;
+    }
 
-                // Alternate names: HCA/*_hca_pack.json
-                Enumeration<? extends ZipEntry> en = zip.entries();
-                while (en.hasMoreElements()) {
-                    ZipEntry e = en.nextElement();
-                    String name = e.getName();
-                    if (name == null) continue;
+    /**
+     * Finds HCA/HCA_pack.json plus HCA/*{suffix} in a jar and parses them in name order.
+     * Returns null if the jar could not be read.
+     */
+    private static List<ParsedPack> scanJar(ZipFilePool zips, Path jarPath, String packSuffix, String tagPrefix) {
+        String jarName = jarPath.getFileName().toString();
 
-                    String n = name.replace("\\", "/");
-                    if (!n.startsWith("HCA/")) continue;
-                    if (!n.toLowerCase(Locale.ROOT).endsWith("_hca_pack.json")) continue;
+        try {
+            ZipFile zip = zips.get(jarPath);
 
-                    packEntries.add(n);
-                }
+            // Prefer the build-time bundle; JSON packs below are the fallback
+            ZipEntry bundle = zip.getEntry(PackBundle.ENTRY_NAME);
+            if (bundle != null) {
+                List<ParsedPack> fromBundle = readJarBundle(zip, bundle, jarName, packSuffix, tagPrefix);
+                if (fromBundle != null) return fromBundle;
+            }
+            Set<String> packEntries = new LinkedHashSet<>();
 
-                packEntries.sort(String.CASE_INSENSITIVE_ORDER);
+            // Standard pack name
+            if (zip.getEntry("HCA/HCA_pack.json") != null) {
+                packEntries.add("HCA/HCA_pack.json");
+            }
 
-                if (packEntries.isEmpty()) continue;
+            Enumeration<? extends ZipEntry> en = zip.entries();
+            while (en.hasMoreElements()) {
+                ZipEntry e = en.nextElement();
+                String name = e.getName();
+                if (name == null) continue;
 
-                ResourceAccess access = new ZipResourceAccess(jarPath);
+                String n = name.replace("\\", "/");
+                if (!n.startsWith("HCA/")) continue;
+                if (!n.toLowerCase(Locale.ROOT).endsWith(packSuffix)) continue;
 
-                for (String entryName : packEntries) {
-                    ZipEntry entry = zip.getEntry(entryName);
-                    if (entry == null) continue;
+                packEntries.add(n);
+            }
 
-                    byte[] bytes;
-                    try (InputStream in = zip.getInputStream(entry)) {
-                        bytes = in.readAllBytes();
-                    }
+            if (packEntries.isEmpty()) return List.of();
+
+            List<String> sorted = new ArrayList<>(packEntries);
+            sorted.sort(String.CASE_INSENSITIVE_ORDER);
+
+            ResourceAccess access = new ZipResourceAccess(jarPath, zips);
 
-                    String tag = jarName + "::" + entryName;
-                    boolean ok = applyPackBytes(weaponRegistry, access, bytes, tag);
-                    if (ok) applied++;
+            List<ParsedPack> out = new ArrayList<>();
+            for (String entryName : sorted) {
+                ZipEntry entry = zip.getEntry(entryName);
+                if (entry == null) continue;
 
-                    System.out.println("[HCA] jar pack applied=" + ok + " tag=" + tag);
+                ParsedPack pack;
+                try (InputStream in = zip.getInputStream(entry)) {
+                    pack = parsePack(access, in, tagPrefix + entryName);
                 }
+                if (pack != null) out.add(pack);
+            }
+            return out;
 
-            } catch (Throwable t) {
-                System.out.println("[HCA] failed scanning jar " + jarName + ": " + t.getMessage());
+        } catch (Throwable t) {
+            System.out.println("[HCA] failed scanning jar " + jarName + ": " + t.getMessage());
+            return null;
+        }
+    }
+
+    /** Bundle sources checked against the jar's central directory (size + stored CRC, nothing is read). */
+    private static PackBundle.SourceCheck zipSources(ZipFile zip) {
+        return (name, size, crc) -> {
+            ZipEntry e = zip.getEntry(name);
+            return e != null && e.getSize() == size && e.getCrc() == (crc & 0xFFFFFFFFL);
+        };
+    }
+
+    /** Bundle sources checked by reading them through the loader (no stored CRC to use there). */
+    private static PackBundle.SourceCheck resourceSources(ClassLoader loader) {
+        return (name, size, crc) -> {
+            try (InputStream in = loader.getResourceAsStream(name)) {
+                return in != null && PackBundle.crc32(in) == (crc & 0xFFFFFFFFL);
             }
+        };
+    }
+
+    /** Packs from a jar's bundle that the JSON scan would also have picked, or null if unreadable or stale. */
+    private static List<ParsedPack> readJarBundle(ZipFile zip, ZipEntry bundle, String jarName, String packSuffix, String tagPrefix) {
+        List<ParsedPack> packs;
+        try (InputStream in = zip.getInputStream(bundle)) {
+            packs = PackBundle.read(in, zipSources(zip));
+        } catch (Throwable t) {
+            System.out.println("[HCA] pack bundle not used in " + jarName + ", using JSON: " + t.getMessage());
+            return null;
         }
 
-        return applied;
+        List<ParsedPack> out = new ArrayList<>();
+        for (ParsedPack pack : packs) {
+            String entryName = pack.SourceTag;
+            if (entryName == null) continue;
+            if (!entryName.equals("HCA/HCA_pack.json") && !entryName.toLowerCase(Locale.ROOT).endsWith(packSuffix)) continue;
+
+            pack.SourceTag = tagPrefix + entryName;
+            out.add(pack);
+        }
+        return out;
     }
 
     // -----------------------------
-    // Apply one pack to WeaponRegistry
+    // Parse one pack (no registry access)
     // -----------------------------
-    private static boolean applyPackBytes(
-            WeaponRegistry weaponRegistry,
+    static ParsedPack parsePack(
             ResourceAccess access,
-            byte[] packBytes,
+            InputStream packIn,
             String sourceTag
     ) {
-        if (weaponRegistry == null) return false;
-        if (access == null) return false;
-        if (packBytes == null || packBytes.length == 0) return false;
-
-        JsonObject root;
-        try (InputStreamReader r = new InputStreamReader(new ByteArrayInputStream(packBytes), StandardCharsets.UTF_8)) {
-            JsonElement el = JsonParser.parseReader(r);
-            if (el == null || !el.isJsonObject()) return false;
-            root = el.getAsJsonObject();
+        if (access == null) return null;
+        if (packIn == null) return null;
+
+        // Overrides / OverrideList are read straight into the pack; index paths are walked after
+        List<String> indexPaths = new ArrayList<>();
+        ParsedPack pack;
+        try {
+            pack = PackJsonReader.readPack(packIn, sourceTag, indexPaths);
+            if (pack == null) return null;
         } catch (Throwable t) {
             System.out.println("[HCA] invalid pack JSON from " + sourceTag + " : " + t.getMessage());
-            return false;
-        }
-
-        // ---- Overrides ----
-        JsonObject overridesObj = (root.get("Overrides") != null && root.get("Overrides").isJsonObject())
-                ? root.getAsJsonObject("Overrides")
-                : null;
-
-        if (overridesObj != null) {
-            Map<String, String> map = new HashMap<>();
-            for (Map.Entry<String, JsonElement> e : overridesObj.entrySet()) {
-                String itemId = e.getKey();
-                String useDef = null;
-                try { useDef = e.getValue().getAsString(); } catch (Throwable ignored) {}
-
-                if (itemId == null || itemId.isBlank()) continue;
-                if (useDef == null || useDef.isBlank()) continue;
-                map.put(itemId, useDef);
-            }
-            if (!map.isEmpty()) weaponRegistry.registerOverrideMap(map, sourceTag);
-        }
-
-        // ---- OverrideList ----
-        JsonArray overrideListArr = (root.get("OverrideList") != null && root.get("OverrideList").isJsonArray())
-                ? root.getAsJsonArray("OverrideList")
-                : null;
-
-        if (overrideListArr != null && overrideListArr.size() > 0) {
-            List<JsonObject> list = new ArrayList<>();
-            for (JsonElement e : overrideListArr) {
-                if (e != null && e.isJsonObject()) list.add(e.getAsJsonObject());
-            }
-            if (!list.isEmpty()) weaponRegistry.registerOverrideList(list, sourceTag);
+            return null;
         }
 
         // ---- Indexes ----
-        JsonArray indexesArr = (root.get("Indexes") != null && root.get("Indexes").isJsonArray())
-                ? root.getAsJsonArray("Indexes")
-                : null;
-
-        if (indexesArr != null && indexesArr.size() > 0) {
+        if (!indexPaths.isEmpty()) {
             Set<String> visited = new HashSet<>();
-            for (JsonElement idxEl : indexesArr) {
-                if (idxEl == null || idxEl.isJsonNull()) continue;
-                String idxPath = null;
-                try { idxPath = idxEl.getAsString(); } catch (Throwable ignored) {}
+            for (String idxPath : indexPaths) {
                 if (idxPath == null || idxPath.isBlank()) continue;
 
-                weaponRegistry.registerIndexFromAccess(access, normalizePath(idxPath), visited, sourceTag);
+                WeaponRegistry.collectIndexFromAccess(access, normalizePath(idxPath), visited, sourceTag, pack.Weapons);
             }
         }
 
-        return true;
+        return pack;
     }
 
     // -----------------------------
@@ -465,7 +654,7 @@ public final class ModPackScanner {
         return null;
     }
 
-    private static String normalizePath(String p) {
+    static String normalizePath(String p) {
         String s = (p == null) ? "" : p.replace("\\", "/").trim();
         while (s.startsWith("/")) s = s.substring(1);
         return s;
@@ -0,0 +1,426 @@
+package com.abilities.abilitiesplugin;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary "HCA bundle" (HCA/HCA_pack.hcab): a mod's HCA packs compiled at build time.
+ *
+ * Holds every pack file of the mod already parsed, with its indexes expanded, so loading
+ * it is a straight read with no JSON and no index walking. ModPackScanner prefers the
+ * bundle when a jar has one and falls back to the JSON packs otherwise (or if the bundle
+ * is unreadable / from another format version / stale).
+ *
+ * The bundle lists every JSON file it was compiled from (pack, indexes, weapons) with its
+ * size and CRC-32. The reader checks each one against what ships next to it, so a bundle
+ * that is older than its JSON is rejected instead of silently shadowing the edits.
+ *
+ * Layout (DataOutputStream, big-endian). "str" is an int index into the string table, -1 = null.
+ * <pre>
+ *   "HCAB" u16 version
+ *   int sourceCount, (UTF entryName, long size, int crc32) *     checked before anything else
+ *   int stringCount, UTF * stringCount
+ *   int packCount, per pack:
+ *     str entryName                                  e.g. HCA/HCA_pack.json
+ *     int overrideCount, (str itemId, str useDef) *
+ *     int overrideListCount, per entry:
+ *       str itemId, str useDef, str abilityBar
+ *       int slotOverrideCount (-1 = none), per slot: u8 slot1to9, u16 presentMask, present fields
+ *     int weaponCount, per weapon:
+ *       str itemId, str abilityBar, int slotCount, fixed-width slot records (SLOT_RECORD_BYTES)
+ * </pre>
+ *
+ * Run as a program (see compileHcaBundle in build.gradle.kts):
+ * {@code PackBundle <resourcesRoot> <output.hcab>}
+ */
+public final class PackBundle {
+
+    public static final String ENTRY_NAME = "HCA/HCA_pack.hcab";
+
+    private static final int MAGIC = 0x48434142; // "HCAB"
+    private static final int VERSION = 2;
+
+    // key, root, id, icon (4 x str) + flags (u8) + maxUses, abilityValue (2 x int) + power, cooldown, recharge (3 x float)
+    static final int SLOT_RECORD_BYTES = 4 * 4 + 1 + 2 * 4 + 3 * 4;
+
+    private static final int FLAG_PLUGIN = 1;
+    private static final int FLAG_CONSUME = 1 << 1;
+    private static final int FLAG_START_WITH_COOLDOWN = 1 << 2;
+
+    private PackBundle() {}
+
+    /** Tells the reader whether a source file still matches what the bundle was built from. */
+    @FunctionalInterface
+    interface SourceCheck {
+        boolean matches(String entryName, long size, int crc32) throws IOException;
+    }
+
+    /** Accepts any sources (tools and tests reading a bundle on its own). */
+    static final SourceCheck ANY_SOURCES = (name, size, crc) -> true;
+
+    /** CRC-32 of a stream, read to the end; for sources that have no stored checksum. */
+    static long crc32(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = in.read(buf)) > 0) crc.update(buf, 0, n);
+        return crc.getValue();
+    }
+
+    // ----------------------------
+    // Reading
+    // ----------------------------
+
+    /**
+     * Reads every pack in the bundle. SourceTag of each pack is its original entry name.
+     * Throws if a source file fails the check (the bundle is stale).
+     */
+    static List<ParsedPack> read(InputStream in, SourceCheck sources) throws IOException {
+        DataInputStream din = new DataInputStream(new BufferedInputStream(in));
+
+        if (din.readInt() != MAGIC) throw new IOException("not an HCA bundle");
+        int version = din.readUnsignedShort();
+        if (version != VERSION) throw new IOException("unsupported HCA bundle version " + version);
+
+        int sourceCount = din.readInt();
+        for (int i = 0; i < sourceCount; i++) {
+            String name = din.readUTF();
+            long size = din.readLong();
+            int crc = din.readInt();
+            if (!sources.matches(name, size, crc)) throw new IOException("stale HCA bundle, " + name + " changed since it was built");
+        }
+
+        String[] strings = new String[din.readInt()];
+        for (int i = 0; i < strings.length; i++) strings[i] = din.readUTF();
+
+        int packCount = din.readInt();
+        List<ParsedPack> packs = new ArrayList<>(packCount);
+
+        for (int p = 0; p < packCount; p++) {
+            ParsedPack pack = new ParsedPack();
+            pack.SourceTag = str(din, strings);
+
+            int overrides = din.readInt();
+            for (int i = 0; i < overrides; i++) {
+                pack.Overrides.put(str(din, strings), str(din, strings));
+            }
+
+            int entries = din.readInt();
+            for (int i = 0; i < entries; i++) {
+                pack.OverrideList.add(readOverrideEntry(din, strings));
+            }
+
+            int weapons = din.readInt();
+            for (int i = 0; i < weapons; i++) {
+                WeaponDefinition def = new WeaponDefinition();
+                def.ItemId = str(din, strings);
+                def.AbilityBar = str(din, strings);
+
+                int slots = din.readInt();
+                for (int s = 0; s < slots; s++) def.AbilitySlots.add(readSlot(din, strings));
+
+                pack.Weapons.add(def);
+            }
+
+            packs.add(pack);
+        }
+
+        return packs;
+    }
+
+    private static ParsedPack.OverrideEntry readOverrideEntry(DataInputStream din, String[] strings) throws IOException {
+        ParsedPack.OverrideEntry e = new ParsedPack.OverrideEntry();
+        e.ItemId = str(din, strings);
+        e.UseDefinition = str(din, strings);
+        e.AbilityBar = str(din, strings);
+
+        int slotOverrides = din.readInt();
+        if (slotOverrides < 0) return e;
+
+        e.SlotOverrides = new HashMap<>();
+        for (int i = 0; i < slotOverrides; i++) {
+            int slot1to9 = din.readUnsignedByte();
+            int mask = din.readUnsignedShort();
+
+            ParsedPack.SlotPatch sp = new ParsedPack.SlotPatch();
+            if ((mask & 1) != 0) sp.Key = str(din, strings);
+            if ((mask & 1 << 1) != 0) sp.RootInteraction = str(din, strings);
+            if ((mask & 1 << 2) != 0) sp.ID = str(din, strings);
+            if ((mask & 1 << 3) != 0) sp.Icon = str(din, strings);
+            if ((mask & 1 << 4) != 0) sp.Plugin = din.readBoolean();
+            if ((mask & 1 << 5) != 0) sp.Consume = din.readBoolean();
+            if ((mask & 1 << 6) != 0) sp.MaxUses = din.readInt();
+            if ((mask & 1 << 7) != 0) sp.PowerMultiplier = din.readFloat();
+            if ((mask & 1 << 8) != 0) sp.AbilityValue = din.readInt();
+            if ((mask & 1 << 9) != 0) sp.CooldownTime = din.readFloat();
+            if ((mask & 1 << 10) != 0) sp.RechargeTime = din.readFloat();
+            if ((mask & 1 << 11) != 0) sp.StartWithCooldown = din.readBoolean();
+
+            e.SlotOverrides.put(slot1to9, sp);
+        }
+
+        return e;
+    }
+
+    private static WeaponAbilitySlot readSlot(DataInputStream din, String[] strings) throws IOException {
+        WeaponAbilitySlot slot = new WeaponAbilitySlot();
+        slot.Key = str(din, strings);
+        slot.RootInteraction = str(din, strings);
+        slot.ID = str(din, strings);
+        slot.Icon = str(din, strings);
+
+        int flags = din.readUnsignedByte();
+        slot.Plugin = (flags & FLAG_PLUGIN) != 0;
+        slot.Consume = (flags & FLAG_CONSUME) != 0;
+        slot.StartWithCooldown = (flags & FLAG_START_WITH_COOLDOWN) != 0;
+
+        slot.MaxUses = din.readInt();
+        slot.AbilityValue = din.readInt();
+        slot.PowerMultiplier = din.readFloat();
+        slot.CooldownTime = din.readFloat();
+        slot.RechargeTime = din.readFloat();
+        return slot;
+    }
+
+    private static String str(DataInputStream din, String[] strings) throws IOException {
+        int idx = din.readInt();
+        if (idx < 0) return null;
+        if (idx >= strings.length) throw new IOException("bad string index " + idx);
+        return strings[idx];
+    }
+
+    // ----------------------------
+    // Writing
+    // ----------------------------
+
+    /** A JSON file the bundle was compiled from. */
+    record Source(String entryName, long size, int crc32) {}
+
+    static void write(List<ParsedPack> packs, List<Source> sources, OutputStream out) throws IOException {
+        // Pass 1: string table
+        Map<String, Integer> table = new LinkedHashMap<>();
+        for (ParsedPack pack : packs) {
+            intern(table, pack.SourceTag);
+            for (Map.Entry<String, String> e : pack.Overrides.entrySet()) {
+                intern(table, e.getKey());
+                intern(table, e.getValue());
+            }
+            for (ParsedPack.OverrideEntry e : pack.OverrideList) {
+                intern(table, e.ItemId);
+                intern(table, e.UseDefinition);
+                intern(table, e.AbilityBar);
+                if (e.SlotOverrides == null) continue;
+                for (ParsedPack.SlotPatch sp : e.SlotOverrides.values()) {
+                    intern(table, sp.Key);
+                    intern(table, sp.RootInteraction);
+                    intern(table, sp.ID);
+                    intern(table, sp.Icon);
+                }
+            }
+            for (WeaponDefinition def : pack.Weapons) {
+                intern(table, def.ItemId);
+                intern(table, def.AbilityBar);
+                if (def.AbilitySlots == null) continue;
+                for (WeaponAbilitySlot slot : def.AbilitySlots) {
+                    intern(table, slot.Key);
+                    intern(table, slot.RootInteraction);
+                    intern(table, slot.ID);
+                    intern(table, slot.Icon);
+                }
+            }
+        }
+
+        // Pass 2: records
+        DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out));
+        dout.writeInt(MAGIC);
+        dout.writeShort(VERSION);
+
+        dout.writeInt(sources.size());
+        for (Source src : sources) {
+            dout.writeUTF(src.entryName());
+            dout.writeLong(src.size());
+            dout.writeInt(src.crc32());
+        }
+
+        dout.writeInt(table.size());
+        for (String s : table.keySet()) dout.writeUTF(s);
+
+        dout.writeInt(packs.size());
+        for (ParsedPack pack : packs) {
+            str(dout, table, pack.SourceTag);
+
+            dout.writeInt(pack.Overrides.size());
+            for (Map.Entry<String, String> e : pack.Overrides.entrySet()) {
+                str(dout, table, e.getKey());
+                str(dout, table, e.getValue());
+            }
+
+            dout.writeInt(pack.OverrideList.size());
+            for (ParsedPack.OverrideEntry e : pack.OverrideList) writeOverrideEntry(dout, table, e);
+
+            dout.writeInt(pack.Weapons.size());
+            for (WeaponDefinition def : pack.Weapons) {
+                str(dout, table, def.ItemId);
+                str(dout, table, def.AbilityBar);
+
+                List<WeaponAbilitySlot> slots = (def.AbilitySlots == null) ? List.of() : def.AbilitySlots;
+                dout.writeInt(slots.size());
+                for (WeaponAbilitySlot slot : slots) writeSlot(dout, table, slot);
+            }
+        }
+
+        dout.flush();
+    }
+
+    private static void writeOverrideEntry(DataOutputStream dout, Map<String, Integer> table, ParsedPack.OverrideEntry e) throws IOException {
+        str(dout, table, e.ItemId);
+        str(dout, table, e.UseDefinition);
+        str(dout, table, e.AbilityBar);
+
+        if (e.SlotOverrides == null) {
+            dout.writeInt(-1);
+            return;
+        }
+
+        dout.writeInt(e.SlotOverrides.size());
+        for (Map.Entry<Integer, ParsedPack.SlotPatch> se : new TreeMap<>(e.SlotOverrides).entrySet()) {
+            ParsedPack.SlotPatch sp = se.getValue();
+
+            int mask = 0;
+            if (sp.Key != null) mask |= 1;
+            if (sp.RootInteraction != null) mask |= 1 << 1;
+            if (sp.ID != null) mask |= 1 << 2;
+            if (sp.Icon != null) mask |= 1 << 3;
+            if (sp.Plugin != null) mask |= 1 << 4;
+            if (sp.Consume != null) mask |= 1 << 5;
+            if (sp.MaxUses != null) mask |= 1 << 6;
+            if (sp.PowerMultiplier != null) mask |= 1 << 7;
+            if (sp.AbilityValue != null) mask |= 1 << 8;
+            if (sp.CooldownTime != null) mask |= 1 << 9;
+            if (sp.RechargeTime != null) mask |= 1 << 10;
+            if (sp.StartWithCooldown != null) mask |= 1 << 11;
+
+            dout.writeByte(se.getKey());
+            dout.writeShort(mask);
+
+            if (sp.Key != null) str(dout, table, sp.Key);
+            if (sp.RootInteraction != null) str(dout, table, sp.RootInteraction);
+            if (sp.ID != null) str(dout, table, sp.ID);
+            if (sp.Icon != null) str(dout, table, sp.Icon);
+            if (sp.Plugin != null) dout.writeBoolean(sp.Plugin);
+            if (sp.Consume != null) dout.writeBoolean(sp.Consume);
+            if (sp.MaxUses != null) dout.writeInt(sp.MaxUses);
+            if (sp.PowerMultiplier != null) dout.writeFloat(sp.PowerMultiplier);
+            if (sp.AbilityValue != null) dout.writeInt(sp.AbilityValue);
+            if (sp.CooldownTime != null) dout.writeFloat(sp.CooldownTime);
+            if (sp.RechargeTime != null) dout.writeFloat(sp.RechargeTime);
+            if (sp.StartWithCooldown != null) dout.writeBoolean(sp.StartWithCooldown);
+        }
+    }
+
+    private static void writeSlot(DataOutputStream dout, Map<String, Integer> table, WeaponAbilitySlot slot) throws IOException {
+        str(dout, table, slot.Key);
+        str(dout, table, slot.RootInteraction);
+        str(dout, table, slot.ID);
+        str(dout, table, slot.Icon);
+
+        int flags = 0;
+        if (slot.Plugin) flags |= FLAG_PLUGIN;
+        if (slot.Consume) flags |= FLAG_CONSUME;
+        if (slot.StartWithCooldown) flags |= FLAG_START_WITH_COOLDOWN;
+        dout.writeByte(flags);
+
+        dout.writeInt(slot.MaxUses);
+        dout.writeInt(slot.AbilityValue);
+        dout.writeFloat(slot.PowerMultiplier);
+        dout.writeFloat(slot.CooldownTime);
+        dout.writeFloat(slot.RechargeTime);
+    }
+
+    private static void intern(Map<String, Integer> table, String s) {
+        if (s != null) table.putIfAbsent(s, table.size());
+    }
+
+    private static void str(DataOutputStream dout, Map<String, Integer> table, String s) throws IOException {
+        dout.writeInt((s == null) ? -1 : table.get(s));
+    }
+
+    // ----------------------------
+    // Build-time converter
+    // ----------------------------
+
+    /**
+     * Compiles resourcesRoot/HCA packs (HCA/HCA_pack.json and HCA/**hca_pack.json, the same
+     * names the jar scan accepts) into one bundle. Writes nothing if the mod has no packs.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: PackBundle <resourcesRoot> <output.hcab>");
+            System.exit(2);
+        }
+
+        Path root = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        List<String> entryNames = new ArrayList<>();
+        Path hcaDir = root.resolve("HCA");
+        if (Files.isDirectory(hcaDir)) {
+            try (Stream<Path> files = Files.walk(hcaDir)) {
+                files.filter(Files::isRegularFile).forEach(p -> {
+                    String entry = root.relativize(p).toString().replace('\\', '/');
+                    if (entry.toLowerCase(Locale.ROOT).endsWith("hca_pack.json")) entryNames.add(entry);
+                });
+            }
+        }
+        entryNames.sort(String.CASE_INSENSITIVE_ORDER);
+
+        Files.deleteIfExists(output);
+        if (entryNames.isEmpty()) {
+            System.out.println("[HCA] No HCA packs under " + hcaDir + ", no bundle written");
+            return;
+        }
+
+        ModPackScanner.FileSystemAccess files = new ModPackScanner.FileSystemAccess(root);
+
+        // Every file the parse opens becomes a source the reader re-checks
+        Set<String> opened = new LinkedHashSet<>();
+        ModPackScanner.ResourceAccess access = path -> {
+            InputStream in = files.open(path);
+            if (in != null) opened.add(ModPackScanner.normalizePath(path));
+            return in;
+        };
+
+        List<ParsedPack> packs = new ArrayList<>();
+        int weapons = 0;
+
+        for (String entry : entryNames) {
+            ParsedPack pack;
+            try (InputStream in = access.open(entry)) {
+                pack = ModPackScanner.parsePack(access, in, entry);
+            }
+            if (pack == null) throw new IOException("invalid HCA pack: " + entry);
+
+            packs.add(pack);
+            weapons += pack.Weapons.size();
+        }
+
+        List<Source> sources = new ArrayList<>();
+        for (String entry : opened) {
+            Path file = root.resolve(entry);
+            try (InputStream in = Files.newInputStream(file)) {
+                sources.add(new Source(entry, Files.size(file), (int) crc32(in)));
+            }
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(output)) {
+            write(packs, sources, out);
+        }
+
+        System.out.println("[HCA] Wrote " + output + ": packs=" + packs.size() + " weapons=" + weapons
+                + " sources=" + sources.size() + " bytes=" + Files.size(output));
+    }
+}
@@ -0,0 +1,367 @@
+package com.abilities.abilitiesplugin;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Streaming reader for pack, index and weapon JSON.
+ *
+ * Reads straight into ParsedPack / WeaponDefinition / WeaponIndex with a Gson JsonReader
+ * instead of building a JsonObject tree first. Unknown keys are skipped. Scalar values
+ * go through the same lenient conversions the tree-based parser used (numbers as
+ * strings, "true"/1 as booleans, bad values fall back to the default).
+ */
+final class PackJsonReader {
+
+    private PackJsonReader() {}
+
+    // ----------------------------
+    // Entry points
+    // ----------------------------
+
+    /** Reads a pack root. Returns null if the document is not a JSON object. Indexes are returned as paths. */
+    static ParsedPack readPack(InputStream in, String sourceTag, List<String> indexPathsOut) throws IOException {
+        JsonReader r = open(in);
+        if (r.peek() != JsonToken.BEGIN_OBJECT) return null;
+
+        ParsedPack pack = new ParsedPack();
+        pack.SourceTag = sourceTag;
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "Overrides" -> readOverrides(r, pack);
+                case "OverrideList" -> readOverrideList(r, pack);
+                case "Indexes" -> readStringArray(r, indexPathsOut);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        return pack;
+    }
+
+    /** Reads an index file (Includes / Weapons). Returns null if it is not a JSON object. */
+    static WeaponIndex readIndex(InputStream in) throws IOException {
+        JsonReader r = open(in);
+        if (r.peek() != JsonToken.BEGIN_OBJECT) return null;
+
+        WeaponIndex idx = new WeaponIndex();
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "Includes" -> {
+                    idx.Includes = new ArrayList<>();
+                    readStringArray(r, idx.Includes);
+                }
+                case "Weapons" -> {
+                    idx.Weapons = new ArrayList<>();
+                    readStringArray(r, idx.Weapons);
+                }
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        return idx;
+    }
+
+    /** Reads one weapon definition file. Returns null if it is not a JSON object. */
+    static WeaponDefinition readWeapon(InputStream in) throws IOException {
+        JsonReader r = open(in);
+        if (r.peek() != JsonToken.BEGIN_OBJECT) return null;
+
+        WeaponDefinition def = new WeaponDefinition();
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "ItemId" -> def.ItemId = asString(readScalar(r));
+                case "AbilityBar" -> def.AbilityBar = asString(readScalar(r));
+                case "AbilitySlots" -> readWeaponSlots(r, def.AbilitySlots);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        return def;
+    }
+
+    private static JsonReader open(InputStream in) {
+        JsonReader r = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        r.setStrictness(Strictness.LENIENT); // same leniency as JsonParser.parseReader
+        return r;
+    }
+
+    // ----------------------------
+    // Pack sections
+    // ----------------------------
+
+    private static void readOverrides(JsonReader r, ParsedPack pack) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_OBJECT) {
+            r.skipValue();
+            return;
+        }
+
+        r.beginObject();
+        while (r.hasNext()) {
+            String itemId = r.nextName();
+            String useDef = asString(readScalar(r));
+
+            if (itemId == null || itemId.isBlank()) continue;
+            if (useDef == null || useDef.isBlank()) continue;
+            pack.Overrides.put(itemId, useDef);
+        }
+        r.endObject();
+    }
+
+    private static void readOverrideList(JsonReader r, ParsedPack pack) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_ARRAY) {
+            r.skipValue();
+            return;
+        }
+
+        r.beginArray();
+        while (r.hasNext()) {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) {
+                r.skipValue();
+                continue;
+            }
+            pack.OverrideList.add(readOverrideEntry(r));
+        }
+        r.endArray();
+    }
+
+    private static ParsedPack.OverrideEntry readOverrideEntry(JsonReader r) throws IOException {
+        ParsedPack.OverrideEntry e = new ParsedPack.OverrideEntry();
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "ItemId" -> e.ItemId = ItemIdUtil.canonicalItemId(asString(readScalar(r)));
+                case "UseDefinition" -> e.UseDefinition = ItemIdUtil.canonicalItemId(asString(readScalar(r)));
+                case "AbilityBar" -> e.AbilityBar = asString(readScalar(r));
+                case "SlotOverrides" -> {
+                    if (r.peek() != JsonToken.BEGIN_OBJECT) {
+                        r.skipValue();
+                        break;
+                    }
+                    e.SlotOverrides = new HashMap<>();
+                    readSlotOverrides(r, e);
+                }
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        return e;
+    }
+
+    private static void readSlotOverrides(JsonReader r, ParsedPack.OverrideEntry e) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            String key = r.nextName();
+
+            int idx1to9;
+            try { idx1to9 = Integer.parseInt(key.trim()); }
+            catch (Throwable t) { idx1to9 = -1; }
+
+            if (idx1to9 < 1 || idx1to9 > 9 || r.peek() != JsonToken.BEGIN_OBJECT) {
+                r.skipValue();
+                continue;
+            }
+
+            e.SlotOverrides.put(idx1to9, readSlotPatch(r));
+        }
+        r.endObject();
+    }
+
+    private static ParsedPack.SlotPatch readSlotPatch(JsonReader r) throws IOException {
+        ParsedPack.SlotPatch sp = new ParsedPack.SlotPatch();
+        Float legacyTime = null;
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "Key" -> sp.Key = asString(readScalar(r));
+                case "RootInteraction" -> sp.RootInteraction = asString(readScalar(r));
+                case "ID" -> sp.ID = asString(readScalar(r));
+                case "Icon" -> sp.Icon = asString(readScalar(r));
+                case "Plugin" -> sp.Plugin = asNullableBoolean(readScalar(r));
+                case "Consume" -> sp.Consume = asNullableBoolean(readScalar(r));
+                case "MaxUses" -> sp.MaxUses = asNullableInt(readScalar(r));
+                case "PowerMultiplier" -> sp.PowerMultiplier = asNullableFloat(readScalar(r));
+                case "AbilityValue" -> sp.AbilityValue = asNullableInt(readScalar(r));
+                case "Time" -> legacyTime = asNullableFloat(readScalar(r));
+                case "CooldownTime" -> sp.CooldownTime = asNullableFloat(readScalar(r));
+                case "RechargeTime" -> sp.RechargeTime = asNullableFloat(readScalar(r));
+                case "StartWithCooldown" -> sp.StartWithCooldown = asNullableBoolean(readScalar(r));
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        if (sp.CooldownTime == null) sp.CooldownTime = legacyTime;
+        if (sp.RechargeTime == null) sp.RechargeTime = legacyTime;
+        return sp;
+    }
+
+    // ----------------------------
+    // Weapon slots
+    // ----------------------------
+
+    private static void readWeaponSlots(JsonReader r, List<WeaponAbilitySlot> out) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_ARRAY) {
+            r.skipValue();
+            return;
+        }
+
+        r.beginArray();
+        while (r.hasNext()) {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) {
+                r.skipValue();
+                continue;
+            }
+            out.add(readWeaponSlot(r));
+        }
+        r.endArray();
+    }
+
+    private static WeaponAbilitySlot readWeaponSlot(JsonReader r) throws IOException {
+        WeaponAbilitySlot slot = new WeaponAbilitySlot();
+        slot.MaxUses = 0;
+        slot.PowerMultiplier = 1.0f;
+        slot.AbilityValue = 0;
+
+        // Defaults of these depend on each other, so settle them after the object is read
+        JsonElement time = null;
+        JsonElement cooldown = null;
+        JsonElement recharge = null;
+        JsonElement startWithCooldown = null;
+
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "Key" -> slot.Key = asString(readScalar(r));
+                case "RootInteraction" -> slot.RootInteraction = asString(readScalar(r));
+                case "ID" -> slot.ID = asString(readScalar(r));
+                case "Plugin" -> slot.Plugin = asBooleanLenient(readScalar(r));
+                case "MaxUses" -> slot.MaxUses = asInt(readScalar(r), 0);
+                case "PowerMultiplier" -> slot.PowerMultiplier = asFloat(readScalar(r), 1.0f);
+                case "Icon" -> slot.Icon = asString(readScalar(r));
+                case "AbilityValue" -> slot.AbilityValue = asInt(readScalar(r), 0);
+                case "Consume" -> slot.Consume = asBooleanLenient(readScalar(r));
+                case "Time" -> time = readScalar(r);
+                case "CooldownTime" -> cooldown = readScalar(r);
+                case "RechargeTime" -> recharge = readScalar(r);
+                case "StartWithCooldown" -> startWithCooldown = readScalar(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+
+        float legacyTime = asFloat(time, -1.0f);
+        slot.CooldownTime = asFloat(cooldown, (legacyTime >= 0.0f) ? legacyTime : 0.3f);
+        slot.RechargeTime = asFloat(recharge, (legacyTime >= 0.0f) ? legacyTime : 1.0f);
+        slot.StartWithCooldown = (startWithCooldown == null) || asBooleanLenient(startWithCooldown);
+
+        return slot;
+    }
+
+    // ----------------------------
+    // Scalars
+    // ----------------------------
+
+    private static void readStringArray(JsonReader r, List<String> out) throws IOException {
+        if (r.peek() != JsonToken.BEGIN_ARRAY) {
+            r.skipValue();
+            return;
+        }
+
+        r.beginArray();
+        while (r.hasNext()) {
+            String s = asString(readScalar(r));
+            if (out != null) out.add(s);
+        }
+        r.endArray();
+    }
+
+    /** Next value as a primitive; null for JSON null, objects and arrays (which are skipped). */
+    private static JsonPrimitive readScalar(JsonReader r) throws IOException {
+        switch (r.peek()) {
+            case STRING:
+                return new JsonPrimitive(r.nextString());
+            case NUMBER:
+                // exact, and getAsInt / getAsFloat read it back like Gson's own tree parser
+                return new JsonPrimitive(new BigDecimal(r.nextString()));
+            case BOOLEAN:
+                return new JsonPrimitive(r.nextBoolean());
+            case NULL:
+                r.nextNull();
+                return null;
+            default:
+                r.skipValue();
+                return null;
+        }
+    }
+
+    // Lenient conversions, shared with the JsonObject-based parsing in WeaponRegistry.
+
+    static String asString(JsonElement e) {
+        if (e == null || e.isJsonNull()) return null;
+        try { return e.getAsString(); } catch (Throwable ignored) { return null; }
+    }
+
+    static int asInt(JsonElement e, int def) {
+        if (e == null || e.isJsonNull()) return def;
+        try { return e.getAsInt(); } catch (Throwable ignored) { return def; }
+    }
+
+    static Integer asNullableInt(JsonElement e) {
+        if (e == null || e.isJsonNull()) return null;
+        try { return e.getAsInt(); } catch (Throwable ignored) { return null; }
+    }
+
+    static float asFloat(JsonElement e, float def) {
+        if (e == null || e.isJsonNull()) return def;
+        try { return e.getAsFloat(); } catch (Throwable ignored) { return def; }
+    }
+
+    static Float asNullableFloat(JsonElement e) {
+        if (e == null || e.isJsonNull()) return null;
+        try { return e.getAsFloat(); } catch (Throwable ignored) { return null; }
+    }
+
+    static boolean asBooleanLenient(JsonElement e) {
+        Boolean b = asNullableBoolean(e);
+        return b != null && b;
+    }
+
+    static Boolean asNullableBoolean(JsonElement e) {
+        if (e == null || e.isJsonNull()) return null;
+
+        try {
+            if (e.isJsonPrimitive()) {
+                JsonPrimitive p = e.getAsJsonPrimitive();
+                if (p.isBoolean()) return p.getAsBoolean();
+                if (p.isString()) return Boolean.parseBoolean(p.getAsString().trim().toLowerCase());
+                if (p.isNumber()) return p.getAsInt() != 0;
+            }
+        } catch (Throwable ignored) {}
+
+        return null;
+    }
+}
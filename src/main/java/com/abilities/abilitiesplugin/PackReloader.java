@@ -0,0 +1,284 @@
+package com.abilities.abilitiesplugin;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.plugin.PluginManager;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rebuilds the weapon registry without a restart.
+ *
+ * A reload scans every pack into a brand new WeaponRegistry on the "HCA-PackReload"
+ * thread, rejects it if nothing resolved, swaps it into AbilitySystem in one write and
+ * then rebinds every enabled player on their own world thread. Runtime is force-persisted
+ * to the held item before the rebind, so charges and cooldowns survive the swap.
+ * External doAbility hooks are rediscovered as well, picking up added or replaced mods.
+ *
+ * Optionally (-Dhca.watchPacks=true) plugin dataDir/hca folders are watched and a
+ * reload is triggered once edits settle.
+ */
+public final class PackReloader {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final long WATCH_DEBOUNCE_MS = 750L;
+
+    // How many vanished item ids a reload names in the log before just counting
+    private static final int MAX_LISTED_REMOVED = 20;
+
+    private final AbilityHotbarState state;
+    private final AbilitySystem abilitySystem;
+    private final AbilityTickScheduler tickScheduler;
+    private final ExternalExecutorChain externalChain;
+    private final ClassLoader hotbarLoader;
+    private final Path packCacheFile;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "HCA-PackReload");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicBoolean reloading = new AtomicBoolean(false);
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private ScheduledFuture<?> pendingWatchReload;
+
+    public PackReloader(
+            AbilityHotbarState state,
+            AbilitySystem abilitySystem,
+            AbilityTickScheduler tickScheduler,
+            ExternalExecutorChain externalChain,
+            ClassLoader hotbarLoader,
+            Path packCacheFile
+    ) {
+        this.state = state;
+        this.abilitySystem = abilitySystem;
+        this.tickScheduler = tickScheduler;
+        this.externalChain = externalChain;
+        this.hotbarLoader = hotbarLoader;
+        this.packCacheFile = packCacheFile;
+    }
+
+    // ----------------------------
+    // Reload
+    // ----------------------------
+
+    /** Starts a reload off the world threads. Completes with a one-line summary for the caller. */
+    public CompletableFuture<String> reload(String reason) {
+        if (!reloading.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture("Reload already in progress.");
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(reloadNow(reason));
+            } catch (Throwable t) {
+                LOGGER.atSevere().log("[HCA] Pack reload failed: %s", String.valueOf(t.getMessage()));
+                result.complete("Reload failed: " + t.getMessage());
+            } finally {
+                reloading.set(false);
+            }
+        });
+        return result;
+    }
+
+    private String reloadNow(String reason) {
+        long startNs = System.nanoTime();
+
+        WeaponRegistry fresh = new WeaponRegistry();
+        ModPackScanner.loadAllPacks(fresh, hotbarLoader, packCacheFile);
+
+        // Validate before anyone can see it: an empty result means the scan broke, keep the old one.
+        if (fresh.countResolvedDefinitions() == 0) {
+            LOGGER.atWarning().log("[HCA] Pack reload (%s) produced no definitions, keeping current registry", reason);
+            return "Reload rejected: no weapon definitions resolved, current packs kept.";
+        }
+
+        int removed = logRemovedWeapons(abilitySystem.getWeaponRegistry(), fresh, reason);
+
+        abilitySystem.swapWeaponRegistry(fresh);
+        if (externalChain != null) externalChain.discover();
+        int rebinding = rebindEnabledPlayers();
+
+        long ms = (System.nanoTime() - startNs) / 1_000_000L;
+        String summary = "Reloaded packs (" + reason + "): definitions=" + fresh.countResolvedDefinitions()
+                + " bars=" + fresh.countBarTemplates()
+                + " removed=" + removed
+                + " rebinding=" + rebinding
+                + " in " + ms + "ms";
+
+        LOGGER.atInfo().log("[HCA] %s", summary);
+        return summary;
+    }
+
+    /** Names the items the old registry resolved and the new one doesn't (a pack or file went missing). */
+    private static int logRemovedWeapons(WeaponRegistry old, WeaponRegistry fresh, String reason) {
+        if (old == null) return 0;
+
+        Set<String> kept = fresh.resolvedItemIds();
+        List<String> removed = new ArrayList<>();
+        for (String itemId : old.resolvedItemIds()) {
+            if (!kept.contains(itemId)) removed.add(itemId);
+        }
+        if (removed.isEmpty()) return 0;
+
+        Collections.sort(removed);
+        String listed = String.join(", ", removed.subList(0, Math.min(MAX_LISTED_REMOVED, removed.size())));
+        if (removed.size() > MAX_LISTED_REMOVED) listed += ", ... (+" + (removed.size() - MAX_LISTED_REMOVED) + " more)";
+
+        LOGGER.atWarning().log("[HCA] Pack reload (%s) dropped %d weapon definition(s): %s", reason, removed.size(), listed);
+        return removed.size();
+    }
+
+    private int rebindEnabledPlayers() {
+        int queued = 0;
+
+        for (var s : state.states()) {
+            if (!s.enabled) continue;
+
+            PlayerRef playerRef = s.playerRef;
+            if (playerRef == null) continue;
+
+            Ref<EntityStore> ref = playerRef.getReference();
+            if (ref == null || !ref.isValid()) continue;
+
+            World world = ref.getStore().getExternalData().getWorld();
+            if (world == null) continue;
+
+            world.execute(() -> rebind(playerRef));
+            queued++;
+        }
+
+        return queued;
+    }
+
+    /** Runs on the world thread. */
+    private void rebind(PlayerRef playerRef) {
+        Ref<EntityStore> ref = playerRef.getReference();
+        if (ref == null || !ref.isValid()) return;
+
+        var s = state.peek(playerRef);
+        if (s == null || !s.enabled) return;
+
+        Store<EntityStore> store = ref.getStore();
+        Player player = store.getComponent(ref, Player.getComponentType());
+        if (player == null) return;
+
+        // Write the live runtime to the item first; the rebind reads it back from there.
+        abilitySystem.persistBoundRuntime(playerRef, store, ref, true);
+        if (!abilitySystem.refreshFromHeldWeapon(playerRef, store, ref)) {
+            // The held item lost its bar in this reload
+            AbilityBarUtil.forceOff(state, player, playerRef);
+            if (tickScheduler != null) tickScheduler.untrack(playerRef);
+            abilitySystem.publishInputView(playerRef, store, ref);
+            return;
+        }
+        AbilityHotbarHud.show(player, playerRef, state);
+    }
+
+    // ----------------------------
+    // Optional dataDir watcher
+    // ----------------------------
+
+    public synchronized void startWatching() {
+        if (watchThread != null) return;
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            LOGGER.atWarning().log("[HCA] Pack watcher unavailable: %s", String.valueOf(e.getMessage()));
+            return;
+        }
+
+        List<Path> watched = new ArrayList<>();
+        for (var plugin : PluginManager.get().getPlugins()) {
+            try {
+                Path dataDir = plugin.getDataDirectory();
+                if (dataDir == null) continue;
+
+                Path hcaDir = dataDir.resolve("hca");
+                if (!Files.isDirectory(hcaDir)) continue;
+
+                hcaDir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watched.add(hcaDir);
+            } catch (Throwable t) {
+                LOGGER.atWarning().log("[HCA] Pack watcher could not watch %s: %s", plugin.getName(), String.valueOf(t.getMessage()));
+            }
+        }
+
+        watchThread = new Thread(this::watchLoop, "HCA-PackWatch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        LOGGER.atInfo().log("[HCA] Watching %d pack folder(s) for changes", watched.size());
+    }
+
+    private void watchLoop() {
+        WatchService ws = watchService;
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = ws.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean packChanged = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                Object ctx = event.context();
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    packChanged = true;
+                } else if (ctx instanceof Path p && p.getFileName().toString().toLowerCase().endsWith(".json")) {
+                    packChanged = true;
+                }
+            }
+            key.reset();
+
+            if (packChanged) scheduleWatchReload();
+        }
+    }
+
+    // Editors write in bursts; wait until the folder has been quiet for a moment.
+    private synchronized void scheduleWatchReload() {
+        if (pendingWatchReload != null) pendingWatchReload.cancel(false);
+        pendingWatchReload = executor.schedule(() -> reload("file change"), WATCH_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,139 @@
+package com.abilities.abilitiesplugin;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * On-disk record of what each scanned jar contained, keyed by jar path + size + mtime.
+ *
+ * An unchanged jar is served straight from the cache (already parsed, ids normalized)
+ * without being opened. Jars with no packs are cached too, so a mods folder full of
+ * unrelated jars costs one stat() each. Only jars seen during the current scan are
+ * written back, so removed jars drop out on their own.
+ *
+ * Bump {@link #VERSION} whenever parsing output changes.
+ */
+final class PackScanCache {
+
+    private static final int VERSION = 1;
+
+    // Pack floats are written as parsed, NaN / Infinity included (Gson rejects those by default)
+    private static final Gson GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
+    private static final class Entry {
+        long Size;
+        long ModifiedMs;
+        List<ParsedPack> Packs;
+    }
+
+    private static final class CacheFile {
+        int Version;
+        Map<String, Entry> Jars;
+    }
+
+    private final Path file;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private PackScanCache(Path file, Map<String, Entry> previous) {
+        this.file = file;
+        this.previous = previous;
+    }
+
+    /** Cache that never hits and never saves. */
+    static PackScanCache disabled() {
+        return new PackScanCache(null, Map.of());
+    }
+
+    /** Loads the cache file; a missing, stale-version or unreadable file just means an empty cache. */
+    static PackScanCache load(Path file) {
+        if (file == null) return disabled();
+        if (!Files.isRegularFile(file)) return new PackScanCache(file, Map.of());
+
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CacheFile cf = GSON.fromJson(r, CacheFile.class);
+            if (cf == null || cf.Version != VERSION || cf.Jars == null) {
+                return new PackScanCache(file, Map.of());
+            }
+            return new PackScanCache(file, new HashMap<>(cf.Jars));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("[HCA] Pack cache unreadable, rescanning all jars: " + e.getMessage());
+            return new PackScanCache(file, Map.of());
+        }
+    }
+
+    /** Returns the cached packs if the jar is unchanged, otherwise null. */
+    List<ParsedPack> lookup(String key, long size, long modifiedMs) {
+        if (file == null) return null;
+
+        Entry e = previous.get(key);
+        if (e == null || e.Packs == null || e.Size != size || e.ModifiedMs != modifiedMs) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        current.put(key, e);
+        hits.incrementAndGet();
+        return e.Packs;
+    }
+
+    void store(String key, long size, long modifiedMs, List<ParsedPack> packs) {
+        if (file == null || packs == null) return;
+
+        Entry e = new Entry();
+        e.Size = size;
+        e.ModifiedMs = modifiedMs;
+        e.Packs = packs;
+        current.put(key, e);
+    }
+
+    /** Writes the entries seen this scan. Skipped when nothing changed. */
+    void save() {
+        if (file == null) return;
+        if (misses.get() == 0 && current.keySet().equals(previous.keySet())) return;
+
+        CacheFile cf = new CacheFile();
+        cf.Version = VERSION;
+        cf.Jars = new TreeMap<>(current);
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                GSON.toJson(cf, w);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                System.out.println("[HCA] Pack cache: atomic move unsupported here, replacing " + file + " in place");
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The cache is only an optimization; a failed write must never break setup.
+            System.out.println("[HCA] Failed writing pack cache " + file + ": " + e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    String describeStats() {
+        return "hits=" + hits.get() + " misses=" + misses.get();
+    }
+}
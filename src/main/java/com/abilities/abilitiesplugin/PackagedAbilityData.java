@@ -1,5 +1,13 @@
 package com.abilities.abilitiesplugin;
 
+import java.util.Objects;
+
+/**
+ * What a handler gets to know about the slot being used.
+ *
+ * Immutable, so handlers may keep it (e.g. in a deferred task). AbilitySystem keeps the last
+ * one per slot and hands it out again while none of the values changed.
+ */
 public final class PackagedAbilityData {
     public final int SlotIndex;   // 0..8
     public final int Slot0to8;    // same as SlotIndex
@@ -45,6 +53,29 @@ public final class PackagedAbilityData {
         this.Consume = consume;
     }
 
+    /** True if this instance holds exactly these values (see AbilitySystem.useSlot). */
+    boolean sameAs(
+            int slotIndex,
+            String key,
+            String id,
+            int maxUses,
+            float powerMultiplier,
+            int abilityValue,
+            String rootInteraction,
+            int remainingUses,
+            boolean consume
+    ) {
+        return SlotIndex == slotIndex
+                && RemainingUses == remainingUses
+                && MaxUses == maxUses
+                && AbilityValue == abilityValue
+                && Consume == consume
+                && Float.compare(PowerMultiplier, powerMultiplier) == 0
+                && Objects.equals(ID, id)
+                && Objects.equals(Key, key)
+                && Objects.equals(RootInteraction, rootInteraction);
+    }
+
     // Compatibility ctor (older callsites that only pass slotIndex once)
     public PackagedAbilityData(
             int slotIndex,
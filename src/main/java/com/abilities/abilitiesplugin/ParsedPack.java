@@ -0,0 +1,48 @@
+package com.abilities.abilitiesplugin;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One pack file, fully read and parsed but not yet applied.
+ *
+ * Produced on the scan threads (no registry access), applied to WeaponRegistry
+ * in load order by {@link WeaponRegistry#applyParsedPack}. Item ids are already
+ * normalized; OverrideList entries without a UseDefinition are resolved against
+ * the registry's Overrides map at apply time, like before.
+ */
+public class ParsedPack {
+    public String SourceTag;
+
+    // Overrides: item -> useDef
+    public Map<String, String> Overrides = new LinkedHashMap<>();
+
+    public List<OverrideEntry> OverrideList = new ArrayList<>();
+
+    // Weapon definitions from Indexes, in index traversal order
+    public List<WeaponDefinition> Weapons = new ArrayList<>();
+
+    public static class OverrideEntry {
+        public String ItemId;
+        public String UseDefinition; // null -> fall back to Overrides map
+        public String AbilityBar;
+        public Map<Integer, SlotPatch> SlotOverrides;
+    }
+
+    public static class SlotPatch {
+        public String Key;
+        public String RootInteraction;
+        public String ID;
+        public String Icon;
+        public Boolean Plugin;
+        public Boolean Consume;
+        public Integer MaxUses;
+        public Float PowerMultiplier;
+        public Integer AbilityValue;
+        public Float CooldownTime;
+        public Float RechargeTime;
+        public Boolean StartWithCooldown;
+    }
+}
@@ -0,0 +1,63 @@
+package com.abilities.abilitiesplugin;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prefix routes keyed by character.
+ *
+ * Lookup walks the id once and returns the value of the matching prefix that was
+ * registered first, so results are the same as checking the prefixes in insertion
+ * order with startsWith. Re-registering a prefix replaces its value but keeps its
+ * original position.
+ *
+ * Not thread safe while being built; AbilityDispatch builds a fresh one and publishes it.
+ */
+final class PrefixTrie<V> {
+
+    private static final class Node<V> {
+        final Map<Character, Node<V>> children = new HashMap<>();
+        V value;
+        int order = -1;
+    }
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    void put(String prefix, V value) {
+        if (prefix == null || prefix.isEmpty() || value == null) return;
+
+        Node<V> n = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            n = n.children.computeIfAbsent(prefix.charAt(i), c -> new Node<>());
+        }
+
+        if (n.order < 0) n.order = size++;
+        n.value = value;
+    }
+
+    /** Value of the earliest-registered prefix of {@code id}, or null. */
+    V find(String id) {
+        if (id == null || size == 0) return null;
+
+        V best = null;
+        int bestOrder = Integer.MAX_VALUE;
+
+        Node<V> n = root;
+        for (int i = 0; i < id.length(); i++) {
+            n = n.children.get(id.charAt(i));
+            if (n == null) break;
+
+            if (n.value != null && n.order < bestOrder) {
+                best = n.value;
+                bestOrder = n.order;
+            }
+        }
+
+        return best;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,227 @@
+package com.abilities.abilitiesplugin;
+
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonString;
+
+/**
+ * Encoding of the "hca_ability_runtime" item metadata (remaining uses + cooldown per slot).
+ *
+ * v1: { v: 1, slots: [ { id, rem, cd } x9 ] }
+ * v2: { v: 2, d: binary }, where d is
+ *
+ *   int32 LE   ability-set hash (the 9 slot ids of the bar it was written for)
+ *   varint     write time, epoch ms
+ *   varint     mask of slots present (slots with an ability id)
+ *   per present slot, in order:
+ *     varint   remaining uses
+ *     varint   cooldown left at write time in ms (0 = none)
+ *
+ * v2 is written by default (-Dhca.runtimeMetaVersion=1 keeps writing v1 for a downgrade);
+ * both are read. A v2 blob whose hash does not match the current bar is ignored, since the
+ * slots no longer line up with what it was written for.
+ */
+final class RuntimeMetaCodec {
+
+    static final String META_KEY = "hca_ability_runtime";
+
+    private static final int V1 = 1;
+    private static final int V2 = 2;
+
+    private static final int WRITE_VERSION =
+            Integer.getInteger("hca.runtimeMetaVersion", V2) == V1 ? V1 : V2;
+
+    private static final int SLOTS = 9;
+
+    private RuntimeMetaCodec() {}
+
+    // ----------------------------
+    // Write
+    // ----------------------------
+
+    static BsonDocument encode(AbilityHotbarState.State s, long nowMs) {
+        return (WRITE_VERSION == V1) ? encodeV1(s) : encodeV2(s, nowMs);
+    }
+
+    private static BsonDocument encodeV1(AbilityHotbarState.State s) {
+        BsonArray slots = new BsonArray();
+        for (int i = 0; i < SLOTS; i++) {
+            BsonDocument slot = new BsonDocument();
+            slot.put("id", new BsonString(s.abilityId(i) == null ? "" : s.abilityId(i)));
+            slot.put("rem", new BsonInt32(s.remainingUses(i)));
+            slot.put("cd", new BsonInt64(s.cooldownUntilMs(i)));
+            slots.add(slot);
+        }
+
+        BsonDocument runtime = new BsonDocument();
+        runtime.put("v", new BsonInt32(V1));
+        runtime.put("slots", slots);
+        return runtime;
+    }
+
+    private static BsonDocument encodeV2(AbilityHotbarState.State s, long nowMs) {
+        // 4 + 10 + 2 + 9 * (5 + 10) worst case
+        byte[] buf = new byte[160];
+        int pos = 0;
+
+        int hash = abilitySetHash(s);
+        buf[pos++] = (byte) hash;
+        buf[pos++] = (byte) (hash >>> 8);
+        buf[pos++] = (byte) (hash >>> 16);
+        buf[pos++] = (byte) (hash >>> 24);
+
+        long base = Math.max(0L, nowMs);
+        pos = writeVarLong(buf, pos, base);
+
+        int mask = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (hasAbility(s, i)) mask |= (1 << i);
+        }
+        pos = writeVarLong(buf, pos, mask);
+
+        for (int i = 0; i < SLOTS; i++) {
+            if ((mask & (1 << i)) == 0) continue;
+
+            pos = writeVarLong(buf, pos, Math.max(0, s.remainingUses(i)));
+            pos = writeVarLong(buf, pos, Math.max(0L, s.cooldownUntilMs(i) - base));
+        }
+
+        byte[] data = new byte[pos];
+        System.arraycopy(buf, 0, data, 0, pos);
+
+        BsonDocument runtime = new BsonDocument();
+        runtime.put("v", new BsonInt32(V2));
+        runtime.put("d", new BsonBinary(data));
+        return runtime;
+    }
+
+    // ----------------------------
+    // Read
+    // ----------------------------
+
+    /**
+     * Applies a stored runtime to the freshly bound state (rem is clamped to the slot's max).
+     * Returns false if there was nothing usable, leaving the state untouched.
+     */
+    static boolean decode(BsonDocument runtime, AbilityHotbarState.State s, long nowMs) {
+        if (runtime == null || s == null) return false;
+
+        int version = (runtime.containsKey("v") && runtime.get("v").isInt32())
+                ? runtime.getInt32("v").getValue()
+                : V1;
+
+        if (version == V2) return decodeV2(runtime, s, nowMs);
+        return decodeV1(runtime, s, nowMs);
+    }
+
+    private static boolean decodeV1(BsonDocument runtime, AbilityHotbarState.State s, long nowMs) {
+        if (!runtime.containsKey("slots") || !runtime.get("slots").isArray()) return false;
+
+        BsonArray slots = runtime.getArray("slots");
+        for (int i = 0; i < SLOTS && i < slots.size(); i++) {
+            if (!slots.get(i).isDocument()) continue;
+            BsonDocument slot = slots.get(i).asDocument();
+
+            if (slot.containsKey("rem") && slot.get("rem").isInt32()) {
+                applyRemaining(s, i, slot.getInt32("rem").getValue());
+            }
+            if (slot.containsKey("cd") && slot.get("cd").isInt64()) {
+                s.setCooldownUntilMs(i, Math.max(0L, slot.getInt64("cd").getValue()));
+            }
+            HCA_AbilityApi.rearmSlotTimers(s, i, nowMs);
+        }
+        return true;
+    }
+
+    private static boolean decodeV2(BsonDocument runtime, AbilityHotbarState.State s, long nowMs) {
+        if (!runtime.containsKey("d") || !runtime.get("d").isBinary()) return false;
+
+        byte[] d = runtime.getBinary("d").getData();
+        if (d == null || d.length < 4) return false;
+
+        int hash = (d[0] & 0xFF) | (d[1] & 0xFF) << 8 | (d[2] & 0xFF) << 16 | (d[3] & 0xFF) << 24;
+        if (hash != abilitySetHash(s)) return false;
+
+        // Decode fully before touching the state, so a truncated blob changes nothing.
+        int[] cursor = {4};
+        long base = readVarLong(d, cursor);
+        long mask = readVarLong(d, cursor);
+        if (base < 0 || mask < 0) return false;
+
+        int[] rem = new int[SLOTS];
+        long[] cdLeft = new long[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            if ((mask & (1L << i)) == 0) continue;
+
+            long r = readVarLong(d, cursor);
+            long c = readVarLong(d, cursor);
+            if (r < 0 || c < 0) return false;
+
+            rem[i] = (int) Math.min(Integer.MAX_VALUE, r);
+            cdLeft[i] = c;
+        }
+
+        for (int i = 0; i < SLOTS; i++) {
+            if ((mask & (1L << i)) == 0) continue;
+
+            applyRemaining(s, i, rem[i]);
+            s.setCooldownUntilMs(i, (cdLeft[i] == 0L) ? 0L : base + cdLeft[i]);
+            HCA_AbilityApi.rearmSlotTimers(s, i, nowMs);
+        }
+        return true;
+    }
+
+    private static void applyRemaining(AbilityHotbarState.State s, int i, int rem) {
+        int max = s.maxUses(i);
+        if (max > 0) rem = Math.max(0, Math.min(max, rem));
+        else rem = Math.max(0, rem);
+        s.setRemainingUses(i, rem);
+    }
+
+    // ----------------------------
+    // Helpers
+    // ----------------------------
+
+    private static boolean hasAbility(AbilityHotbarState.State s, int i) {
+        String id = s.abilityId(i);
+        return id != null && !id.isBlank();
+    }
+
+    /** Hash of the slot ids, position-sensitive. String.hashCode is specified, so this is stable across runs. */
+    static int abilitySetHash(AbilityHotbarState.State s) {
+        int h = 1;
+        for (int i = 0; i < SLOTS; i++) {
+            String id = s.abilityId(i);
+            h = 31 * h + ((id == null || id.isBlank()) ? 0 : id.hashCode());
+        }
+        return h;
+    }
+
+    private static int writeVarLong(byte[] buf, int pos, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[pos++] = (byte) v;
+        return pos;
+    }
+
+    /** Unsigned varint at cursor[0]; -1 when truncated or longer than 63 bits. */
+    private static long readVarLong(byte[] d, int[] cursor) {
+        int pos = cursor[0];
+        long result = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            if (pos >= d.length) return -1;
+            byte b = d[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                cursor[0] = pos;
+                return result;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,132 @@
+package com.abilities.abilitiesplugin;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact per-slot storage, enabled with -Dhca.compactSlots=true.
+ *
+ * Instead of 17 nine-element arrays per player, every player's slots live in shared primitive
+ * pages (struct-of-arrays, PAGE_PLAYERS players per page) and the string fields are interned
+ * to int ids. A page never moves once created, so a State keeps its page and base offset for
+ * life; only the page directory grows. Handles of removed players are reused.
+ *
+ * Each slot is only written by the world thread that owns its player, so two worlds writing
+ * neighbouring slots of one page never touch the same element.
+ */
+final class SlotArena {
+
+    static final boolean ENABLED = Boolean.getBoolean("hca.compactSlots");
+
+    static final int SLOTS = 9;
+    static final int PAGE_PLAYERS = 256;
+    private static final int PAGE_SLOTS = PAGE_PLAYERS * SLOTS;
+
+    // flag bits
+    static final byte PLUGIN = 1;
+    static final byte CONSUME = 2;
+    static final byte START_WITH_COOLDOWN = 4;
+
+    private static final SlotArena SHARED = ENABLED ? new SlotArena() : null;
+
+    static SlotArena shared() {
+        return SHARED;
+    }
+
+    static final class Page {
+        // interned string ids (0 = null)
+        final int[] itemIds = new int[PAGE_SLOTS];
+        final int[] rootInteractions = new int[PAGE_SLOTS];
+        final int[] abilityIds = new int[PAGE_SLOTS];
+        final int[] icons = new int[PAGE_SLOTS];
+        final byte[] flags = new byte[PAGE_SLOTS];
+
+        final int[] maxUses = new int[PAGE_SLOTS];
+        final int[] remainingUses = new int[PAGE_SLOTS];
+        final int[] abilityValues = new int[PAGE_SLOTS];
+        final float[] powerMultipliers = new float[PAGE_SLOTS];
+        final float[] cooldownTimes = new float[PAGE_SLOTS];
+        final float[] rechargeTimes = new float[PAGE_SLOTS];
+        final long[] cooldownUntilMs = new long[PAGE_SLOTS];
+        final long[] lastUpdateMs = new long[PAGE_SLOTS];
+        final long[] nextChargeAtMs = new long[PAGE_SLOTS];
+        final double[] rechargeAccumulatorSec = new double[PAGE_SLOTS];
+    }
+
+    private Page[] pages = new Page[0];
+    private int nextHandle = 0;
+    private int[] free = new int[16];
+    private int freeCount = 0;
+
+    // String table: id -> string grows under the lock, lookups of known strings are lock-free
+    private final ConcurrentHashMap<String, Integer> stringIds = new ConcurrentHashMap<>();
+    private volatile String[] strings = new String[64]; // [0] stays null
+
+    // ----------------------------
+    // Handles
+    // ----------------------------
+
+    synchronized int allocate() {
+        if (freeCount > 0) return free[--freeCount];
+
+        int handle = nextHandle++;
+        int p = handle / PAGE_PLAYERS;
+        if (p >= pages.length) {
+            pages = Arrays.copyOf(pages, p + 1);
+            pages[p] = new Page();
+        }
+        return handle;
+    }
+
+    synchronized Page page(int handle) {
+        return pages[handle / PAGE_PLAYERS];
+    }
+
+    static int base(int handle) {
+        return (handle % PAGE_PLAYERS) * SLOTS;
+    }
+
+    synchronized void release(int handle) {
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = handle;
+    }
+
+    // ----------------------------
+    // Strings
+    // ----------------------------
+
+    int intern(String s) {
+        if (s == null) return 0;
+
+        Integer id = stringIds.get(s);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = stringIds.get(s);
+            if (id != null) return id;
+
+            int next = stringIds.size() + 1;
+            String[] table = strings;
+            if (next >= table.length) table = Arrays.copyOf(table, table.length * 2);
+            table[next] = s;
+            strings = table;
+            stringIds.put(s, next);
+            return next;
+        }
+    }
+
+    String string(int id) {
+        return (id == 0) ? null : strings[id];
+    }
+
+    // ----------------------------
+    // Stats
+    // ----------------------------
+
+    synchronized String describeStats() {
+        return "pages=" + pages.length
+                + " players=" + (nextHandle - freeCount)
+                + " free=" + freeCount
+                + " strings=" + stringIds.size();
+    }
+}
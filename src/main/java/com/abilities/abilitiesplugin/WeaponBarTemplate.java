@@ -0,0 +1,163 @@
+package com.abilities.abilitiesplugin;
+
+import java.util.List;
+
+/**
+ * Frozen, precompiled ability bar for one item.
+ *
+ * Built once per resolved WeaponDefinition: slot fields are flattened into 9-wide
+ * arrays (defaults filled in, power/times sanitized, strings interned) so binding a
+ * weapon is a bulk System.arraycopy into the player's State (a flat slot loop in compact mode).
+ */
+public final class WeaponBarTemplate {
+
+    private static final int SLOTS = 9;
+
+    final String itemId;
+    final String abilityBarPath;
+
+    // Slots [0, slotCount) come from the definition; the rest are empty padding.
+    final int slotCount;
+
+    final String[] keys = new String[SLOTS];
+    final String[] rootInteractions = new String[SLOTS];
+    final String[] abilityIds = new String[SLOTS];
+    final String[] icons = new String[SLOTS];
+
+    final boolean[] pluginFlags = new boolean[SLOTS];
+    final boolean[] consumeFlags = new boolean[SLOTS];
+    final boolean[] startWithCooldown = new boolean[SLOTS];
+
+    final int[] maxUses = new int[SLOTS];
+    final int[] abilityValues = new int[SLOTS];
+
+    final float[] powerMultipliers = new float[SLOTS];
+    final float[] cooldownTimes = new float[SLOTS];
+    final float[] rechargeTimes = new float[SLOTS];
+
+    // Compact mode: the four strings per slot as arena ids, interned on first bind
+    private volatile int[] arenaStringIds = null;
+
+    private WeaponBarTemplate(String itemId, String abilityBarPath, int slotCount) {
+        this.itemId = itemId;
+        this.abilityBarPath = abilityBarPath;
+        this.slotCount = slotCount;
+    }
+
+    /** Returns null when the definition has no usable bar (same rule the bind path used). */
+    static WeaponBarTemplate compile(String itemId, WeaponDefinition def) {
+        if (def == null) return null;
+        if (def.AbilityBar == null || def.AbilityBar.isBlank()) return null;
+
+        List<WeaponAbilitySlot> slots = def.AbilitySlots;
+        if (slots == null) return null;
+
+        WeaponBarTemplate t = new WeaponBarTemplate(intern(itemId), intern(def.AbilityBar), Math.min(SLOTS, slots.size()));
+
+        for (int i = 0; i < SLOTS; i++) {
+            WeaponAbilitySlot slot = (i < slots.size()) ? slots.get(i) : null;
+
+            t.keys[i] = (slot == null) ? null : intern(slot.Key);
+            t.rootInteractions[i] = (slot == null) ? null : intern(slot.RootInteraction);
+            t.abilityIds[i] = (slot == null) ? null : intern(slot.ID);
+            t.icons[i] = (slot == null) ? null : intern(slot.Icon);
+
+            t.pluginFlags[i] = slot != null && slot.Plugin;
+            t.consumeFlags[i] = slot != null && slot.Consume;
+            t.startWithCooldown[i] = (slot == null) || slot.StartWithCooldown;
+
+            t.maxUses[i] = (slot == null) ? 0 : slot.MaxUses;
+            t.abilityValues[i] = (slot == null) ? 0 : slot.AbilityValue;
+
+            float power = 1.0f;
+            if (slot != null && slot.PowerMultiplier > 0.0f) power = slot.PowerMultiplier;
+            t.powerMultipliers[i] = power;
+
+            t.cooldownTimes[i] = (slot == null) ? 0.3f : HCA_AbilityApi.sanitizeTime(slot.CooldownTime);
+            t.rechargeTimes[i] = (slot == null) ? 1.0f : HCA_AbilityApi.sanitizeTime(slot.RechargeTime);
+        }
+
+        return t;
+    }
+
+    /** Copies the bar into the player's state and initializes slot runtime. */
+    void applyTo(AbilityHotbarState.State s) {
+        s.abilityBarUiPath = abilityBarPath;
+
+        if (AbilityHotbarState.COMPACT) {
+            int[] ids = arenaStringIds();
+            for (int i = 0; i < SLOTS; i++) {
+                s.setStringIds(i, ids[i * 4], ids[i * 4 + 1], ids[i * 4 + 2], ids[i * 4 + 3]);
+
+                s.setPluginFlag(i, pluginFlags[i]);
+                s.setConsumeFlag(i, consumeFlags[i]);
+                s.setStartWithCooldown(i, startWithCooldown[i]);
+
+                s.setMaxUses(i, maxUses[i]);
+                s.setAbilityValue(i, abilityValues[i]);
+
+                s.setPowerMultiplier(i, powerMultipliers[i]);
+                s.setCooldownTime(i, cooldownTimes[i]);
+                s.setRechargeTime(i, rechargeTimes[i]);
+            }
+        } else {
+            System.arraycopy(keys, 0, s.hotbarItemIds, 0, SLOTS);
+            System.arraycopy(rootInteractions, 0, s.hotbarRootInteractions, 0, SLOTS);
+            System.arraycopy(abilityIds, 0, s.hotbarAbilityIds, 0, SLOTS);
+            System.arraycopy(icons, 0, s.hotbarIcons, 0, SLOTS);
+
+            System.arraycopy(pluginFlags, 0, s.hotbarPluginFlags, 0, SLOTS);
+            System.arraycopy(consumeFlags, 0, s.hotbarConsumeFlags, 0, SLOTS);
+            System.arraycopy(startWithCooldown, 0, s.hotbarStartWithCooldown, 0, SLOTS);
+
+            System.arraycopy(maxUses, 0, s.hotbarMaxUses, 0, SLOTS);
+            System.arraycopy(abilityValues, 0, s.hotbarAbilityValues, 0, SLOTS);
+
+            System.arraycopy(powerMultipliers, 0, s.hotbarPowerMultipliers, 0, SLOTS);
+            System.arraycopy(cooldownTimes, 0, s.hotbarCooldownTimes, 0, SLOTS);
+            System.arraycopy(rechargeTimes, 0, s.hotbarRechargeTimes, 0, SLOTS);
+        }
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < SLOTS; i++) {
+            if (i < slotCount) {
+                HCA_AbilityApi.initializeSlotRuntime(s, i, now);
+            } else {
+                s.setRemainingUses(i, 0);
+                s.setCooldownUntilMs(i, 0L);
+                s.setRechargeAccumulatorSec(i, 0.0);
+                s.setLastUpdateMs(i, 0L);
+                s.setNextChargeAtMs(i, Long.MAX_VALUE);
+            }
+        }
+    }
+
+    private int[] arenaStringIds() {
+        int[] ids = arenaStringIds;
+        if (ids != null) return ids;
+
+        // racing world threads intern the same strings to the same ids; either copy is fine
+        SlotArena arena = SlotArena.shared();
+        ids = new int[SLOTS * 4];
+        for (int i = 0; i < SLOTS; i++) {
+            ids[i * 4] = arena.intern(keys[i]);
+            ids[i * 4 + 1] = arena.intern(rootInteractions[i]);
+            ids[i * 4 + 2] = arena.intern(abilityIds[i]);
+            ids[i * 4 + 3] = arena.intern(icons[i]);
+        }
+        arenaStringIds = ids;
+        return ids;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public String getAbilityBarPath() {
+        return abilityBarPath;
+    }
+
+    private static String intern(String s) {
+        return (s == null) ? null : s.intern();
+    }
+}
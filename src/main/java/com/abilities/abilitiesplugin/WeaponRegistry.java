@@ -4,12 +4,13 @@ import com.google.gson.*;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class WeaponRegistry {
 
+    // ----------------------------
+    // Build phase (pack loading only, single thread)
+    // ----------------------------
     private final Map<String, WeaponDefinition> byItemId = new HashMap<>();
 
     // shorthand: item -> useDef
@@ -18,7 +19,22 @@ public class WeaponRegistry {
     // full patch: item -> patch
     private final Map<String, OverridePatch> overridePatches = new HashMap<>();
 
-    private final Gson gson = new GsonBuilder().create();
+    // ----------------------------
+    // Runtime phase: fully resolved, published once by publishSnapshot()
+    // ----------------------------
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+
+        final Map<String, WeaponDefinition> definitions;
+        final Map<String, WeaponBarTemplate> templates;
+
+        Snapshot(Map<String, WeaponDefinition> definitions, Map<String, WeaponBarTemplate> templates) {
+            this.definitions = definitions;
+            this.templates = templates;
+        }
+    }
 
     // ----------------------------
     // Stats helpers (for debug logs)
@@ -26,32 +42,23 @@ public class WeaponRegistry {
     public int countDefinitions() { return byItemId.size(); }
     public int countOverrideMap() { return overrideUseDefinition.size(); }
     public int countOverridePatches() { return overridePatches.size(); }
+    public int countResolvedDefinitions() { return snapshot.definitions.size(); }
+    public int countBarTemplates() { return snapshot.templates.size(); }
+    public Set<String> resolvedItemIds() { return snapshot.definitions.keySet(); }
 
     // ----------------------------
-    // Lookups
+    // Lookups (lock-free, read the published snapshot)
     // ----------------------------
 
     public WeaponDefinition getResolvedDefinition(String itemId) {
-        if (itemId == null || itemId.isBlank()) return null;
-        String n = ItemIdUtil.normalizeItemId(itemId);
-
-        // already resolved or base definition
-        WeaponDefinition direct = byItemId.get(n);
-        if (direct != null) return direct;
-
-        // patch-based override (clone + patch)
-        if (ensureRegistered(n)) {
-            return byItemId.get(n);
-        }
+        if (itemId == null) return null;
+        Snapshot snap = snapshot;
 
-        // shorthand override map to base def
-        String useDef = overrideUseDefinition.get(n);
-        if (useDef != null && !useDef.isBlank()) {
-            WeaponDefinition base = byItemId.get(useDef);
-            if (base != null) return base;
-        }
+        WeaponDefinition d = snap.definitions.get(itemId);
+        if (d != null) return d;
 
-        return null;
+        String n = ItemIdUtil.canonicalItemId(itemId);
+        return (n == null) ? null : snap.definitions.get(n);
     }
 
     public List<WeaponAbilitySlot> getAbilitySlots(String itemId) {
@@ -64,10 +71,43 @@ public class WeaponRegistry {
         return (d == null) ? null : d.AbilityBar;
     }
 
+    /** Single resolution of an item to its precompiled bar. Null if the item has no usable bar. */
+    public WeaponBarTemplate getBarTemplate(String itemId) {
+        if (itemId == null) return null;
+        Snapshot snap = snapshot;
+
+        WeaponBarTemplate t = snap.templates.get(itemId);
+        if (t != null) return t;
+
+        String n = ItemIdUtil.canonicalItemId(itemId);
+        return (n == null) ? null : snap.templates.get(n);
+    }
+
     // ----------------------------
     // Pack registration methods
     // ----------------------------
 
+    /** Applies one pre-parsed pack: Overrides, then OverrideList, then indexed weapons. */
+    public void applyParsedPack(ParsedPack pack) {
+        if (pack == null) return;
+
+        if (pack.Overrides != null && !pack.Overrides.isEmpty()) {
+            registerOverrideMap(pack.Overrides, pack.SourceTag);
+        }
+
+        if (pack.OverrideList != null && !pack.OverrideList.isEmpty()) {
+            int added = 0;
+            for (ParsedPack.OverrideEntry e : pack.OverrideList) {
+                if (registerOverrideEntry(e)) added++;
+            }
+            System.out.println("[WeaponRegistry] OverrideList merged=" + added + " from " + pack.SourceTag);
+        }
+
+        if (pack.Weapons != null) {
+            for (WeaponDefinition def : pack.Weapons) registerWeaponDefinition(def);
+        }
+    }
+
     public void registerOverrideMap(Map<String, String> overridesMap, String sourceTag) {
         if (overridesMap == null || overridesMap.isEmpty()) return;
 
@@ -77,12 +117,12 @@ public class WeaponRegistry {
             if (itemId == null || itemId.isBlank()) continue;
             if (useDef == null || useDef.isBlank()) continue;
 
-            String nItem = ItemIdUtil.normalizeItemId(itemId);
-            String nDef = ItemIdUtil.normalizeItemId(useDef);
+            String nItem = ItemIdUtil.canonicalItemId(itemId);
+            String nDef = ItemIdUtil.canonicalItemId(useDef);
 
             overrideUseDefinition.put(nItem, nDef);
 
-            // also create a minimal patch so ensureRegistered can build a clone if needed
+            // also create a minimal patch so the snapshot build can clone it
             OverridePatch p = overridePatches.getOrDefault(nItem, new OverridePatch());
             p.itemId = nItem;
             p.useDefinition = nDef;
@@ -103,75 +143,7 @@ public class WeaponRegistry {
 
         for (JsonElement el : overrideList) {
             if (el == null || !el.isJsonObject()) continue;
-            JsonObject o = el.getAsJsonObject();
-
-            String itemId = ItemIdUtil.normalizeItemId(getString(o, "ItemId"));
-            if (itemId == null || itemId.isBlank()) continue;
-
-            String useDef = ItemIdUtil.normalizeItemId(getString(o, "UseDefinition"));
-            if (useDef == null || useDef.isBlank()) {
-                // fallback to shorthand override map
-                useDef = overrideUseDefinition.get(itemId);
-            }
-
-            if (useDef == null || useDef.isBlank()) {
-                System.out.println("[WeaponRegistry] OverrideList entry missing UseDefinition and no fallback Override for ItemId=" + itemId);
-                continue;
-            }
-
-            String abilityBar = getString(o, "AbilityBar");
-
-            OverridePatch p = new OverridePatch();
-            p.itemId = itemId;
-            p.useDefinition = useDef;
-            p.abilityBar = abilityBar;
-
-            // slot overrides
-            JsonObject so = (o.get("SlotOverrides") != null && o.get("SlotOverrides").isJsonObject())
-                    ? o.getAsJsonObject("SlotOverrides")
-                    : null;
-
-            if (so != null) {
-                p.slotOverrides = new HashMap<>();
-                for (Map.Entry<String, JsonElement> se : so.entrySet()) {
-                    int idx1to9;
-                    try { idx1to9 = Integer.parseInt(se.getKey().trim()); }
-                    catch (Throwable t) { continue; }
-
-                    if (idx1to9 < 1 || idx1to9 > 9) continue;
-                    if (!se.getValue().isJsonObject()) continue;
-
-                    JsonObject spObj = se.getValue().getAsJsonObject();
-                    SlotPatch sp = new SlotPatch();
-
-                    sp.Key = getString(spObj, "Key");
-                    sp.RootInteraction = getString(spObj, "RootInteraction");
-                    sp.ID = getString(spObj, "ID");
-                    sp.Icon = getString(spObj, "Icon");
-
-                    sp.Plugin = getNullableBoolean(spObj, "Plugin");
-                    sp.Consume = getNullableBoolean(spObj, "Consume");
-
-                    sp.MaxUses = getNullableInt(spObj, "MaxUses");
-                    sp.PowerMultiplier = getNullableFloat(spObj, "PowerMultiplier");
-                    sp.AbilityValue = getNullableInt(spObj, "AbilityValue");
-                    Float legacyTime = getNullableFloat(spObj, "Time");
-                    sp.CooldownTime = getNullableFloat(spObj, "CooldownTime");
-                    if (sp.CooldownTime == null) sp.CooldownTime = legacyTime;
-                    sp.RechargeTime = getNullableFloat(spObj, "RechargeTime");
-                    if (sp.RechargeTime == null) sp.RechargeTime = legacyTime;
-                    sp.StartWithCooldown = getNullableBoolean(spObj, "StartWithCooldown");
-
-                    p.slotOverrides.put(idx1to9, sp);
-                }
-            }
-
-            // store shorthand too so it behaves like Overrides
-            overrideUseDefinition.put(itemId, useDef);
-
-            // last writer wins (load order)
-            overridePatches.put(itemId, p);
-            added++;
+            if (registerOverrideEntry(parseOverrideEntry(el.getAsJsonObject()))) added++;
         }
 
         System.out.println("[WeaponRegistry] OverrideList merged=" + added + " from " + sourceTag);
@@ -182,66 +154,41 @@ public class WeaponRegistry {
 
         for (JsonObject o : overrideList) {
             if (o == null) continue;
+            registerOverrideEntry(parseOverrideEntry(o));
+        }
 
-            String itemId = ItemIdUtil.normalizeItemId(getString(o, "ItemId"));
-            String useDef = ItemIdUtil.normalizeItemId(getString(o, "UseDefinition"));
-            String abilityBar = getString(o, "AbilityBar");
+        System.out.println("[WeaponRegistry] OverrideList merged (" + overrideList.size() + ") from " + sourceTag);
+    }
 
-            if (itemId == null || itemId.isBlank()) continue;
+    private boolean registerOverrideEntry(ParsedPack.OverrideEntry e) {
+        if (e == null) return false;
 
-            if (useDef == null || useDef.isBlank()) {
-                useDef = overrideUseDefinition.get(itemId);
-            }
-            if (useDef == null || useDef.isBlank()) continue;
+        String itemId = ItemIdUtil.canonicalItemId(e.ItemId);
+        if (itemId == null || itemId.isBlank()) return false;
 
-            OverridePatch p = new OverridePatch();
-            p.itemId = itemId;
-            p.useDefinition = useDef;
-            p.abilityBar = abilityBar;
-
-            JsonElement soEl = o.get("SlotOverrides");
-            if (soEl != null && soEl.isJsonObject()) {
-                JsonObject so = soEl.getAsJsonObject();
-                p.slotOverrides = new HashMap<>();
-
-                for (Map.Entry<String, JsonElement> se : so.entrySet()) {
-                    int idx1to9;
-                    try { idx1to9 = Integer.parseInt(se.getKey().trim()); }
-                    catch (Throwable t) { continue; }
-
-                    if (idx1to9 < 1 || idx1to9 > 9) continue;
-                    if (!se.getValue().isJsonObject()) continue;
-
-                    JsonObject spObj = se.getValue().getAsJsonObject();
-                    SlotPatch sp = new SlotPatch();
-
-                    sp.Key = getString(spObj, "Key");
-                    sp.RootInteraction = getString(spObj, "RootInteraction");
-                    sp.ID = getString(spObj, "ID");
-                    sp.Icon = getString(spObj, "Icon");
-
-                    sp.Plugin = getNullableBoolean(spObj, "Plugin");
-                    sp.Consume = getNullableBoolean(spObj, "Consume");
-
-                    sp.MaxUses = getNullableInt(spObj, "MaxUses");
-                    sp.PowerMultiplier = getNullableFloat(spObj, "PowerMultiplier");
-                    sp.AbilityValue = getNullableInt(spObj, "AbilityValue");
-                    Float legacyTime = getNullableFloat(spObj, "Time");
-                    sp.CooldownTime = getNullableFloat(spObj, "CooldownTime");
-                    if (sp.CooldownTime == null) sp.CooldownTime = legacyTime;
-                    sp.RechargeTime = getNullableFloat(spObj, "RechargeTime");
-                    if (sp.RechargeTime == null) sp.RechargeTime = legacyTime;
-                    sp.StartWithCooldown = getNullableBoolean(spObj, "StartWithCooldown");
-
-                    p.slotOverrides.put(idx1to9, sp);
-                }
-            }
+        String useDef = ItemIdUtil.canonicalItemId(e.UseDefinition);
+        if (useDef == null || useDef.isBlank()) {
+            // fallback to shorthand override map
+            useDef = overrideUseDefinition.get(itemId);
+        }
 
-            overrideUseDefinition.put(itemId, useDef);
-            overridePatches.put(itemId, p); // ✅ fixed (was overrides.put)
+        if (useDef == null || useDef.isBlank()) {
+            System.out.println("[WeaponRegistry] OverrideList entry missing UseDefinition and no fallback Override for ItemId=" + itemId);
+            return false;
         }
 
-        System.out.println("[WeaponRegistry] OverrideList merged (" + overrideList.size() + ") from " + sourceTag);
+        OverridePatch p = new OverridePatch();
+        p.itemId = itemId;
+        p.useDefinition = useDef;
+        p.abilityBar = e.AbilityBar;
+        p.slotOverrides = e.SlotOverrides;
+
+        // store shorthand too so it behaves like Overrides
+        overrideUseDefinition.put(itemId, useDef);
+
+        // last writer wins (load order)
+        overridePatches.put(itemId, p);
+        return true;
     }
 
     // Must exist (AbilityReceiver calls it)
@@ -250,6 +197,32 @@ public class WeaponRegistry {
             String indexPath,
             Set<String> visited,
             String sourceTag
+    ) {
+        List<WeaponDefinition> defs = new ArrayList<>();
+        boolean ok = collectIndexFromAccess(access, indexPath, visited, sourceTag, defs);
+        for (WeaponDefinition def : defs) registerWeaponDefinition(def);
+        return ok;
+    }
+
+    private void registerWeaponDefinition(WeaponDefinition def) {
+        if (def == null || def.ItemId == null || def.ItemId.isBlank()) return;
+
+        // Cached/bundled packs carry normalized ids; make them the shared instances
+        def.ItemId = ItemIdUtil.canonicalItemId(def.ItemId);
+        byItemId.put(def.ItemId, def);
+    }
+
+    // ----------------------------
+    // Pack parsing (no registry state, safe on scan threads)
+    // ----------------------------
+
+    /** Walks an index (and its includes) and parses every weapon file it lists, in order. */
+    static boolean collectIndexFromAccess(
+            ModPackScanner.ResourceAccess access,
+            String indexPath,
+            Set<String> visited,
+            String sourceTag,
+            List<WeaponDefinition> out
     ) {
         if (access == null) return false;
         if (indexPath == null || indexPath.isBlank()) return false;
@@ -259,10 +232,7 @@ public class WeaponRegistry {
         String visitKey = sourceTag + "::" + normalized;
         if (!visited.add(visitKey)) return true;
 
-        JsonObject obj = readJsonObject(access, normalized);
-        if (obj == null) return false;
-
-        WeaponIndex idx = gson.fromJson(obj, WeaponIndex.class);
+        WeaponIndex idx = readResource(access, normalized, PackJsonReader::readIndex);
         if (idx == null) return false;
 
         if (idx.Includes != null) {
@@ -270,9 +240,9 @@ public class WeaponRegistry {
                 if (p == null || p.isBlank()) continue;
                 String np = normalizePath(p);
                 if (np.endsWith("index.json")) {
-                    registerIndexFromAccess(access, np, visited, sourceTag);
+                    collectIndexFromAccess(access, np, visited, sourceTag, out);
                 } else {
-                    registerWeaponDefFromAccess(access, np, sourceTag);
+                    addWeaponDefFromAccess(access, np, out);
                 }
             }
         }
@@ -280,121 +250,179 @@ public class WeaponRegistry {
         if (idx.Weapons != null) {
             for (String p : idx.Weapons) {
                 if (p == null || p.isBlank()) continue;
-                registerWeaponDefFromAccess(access, normalizePath(p), sourceTag);
+                addWeaponDefFromAccess(access, normalizePath(p), out);
             }
         }
 
         return true;
     }
 
-    private void registerWeaponDefFromAccess(ModPackScanner.ResourceAccess access, String weaponPath, String sourceTag)
+    private static void addWeaponDefFromAccess(ModPackScanner.ResourceAccess access, String weaponPath, List<WeaponDefinition> out)
     {
         String normalized = normalizePath(weaponPath);
 
-        JsonObject obj = readJsonObject(access, normalized);
-        if (obj == null) return;
-
-        WeaponDefinition def = parseWeaponDefinition(obj);
+        WeaponDefinition def = readResource(access, normalized, PackJsonReader::readWeapon);
         if (def == null || def.ItemId == null || def.ItemId.isBlank()) return;
 
-        String key = ItemIdUtil.normalizeItemId(def.ItemId);
-        def.ItemId = key;
-        byItemId.put(key, def);
+        def.ItemId = ItemIdUtil.canonicalItemId(def.ItemId);
+        out.add(def);
+    }
+
+    static ParsedPack.OverrideEntry parseOverrideEntry(JsonObject o) {
+        if (o == null) return null;
+
+        ParsedPack.OverrideEntry e = new ParsedPack.OverrideEntry();
+        e.ItemId = ItemIdUtil.canonicalItemId(getString(o, "ItemId"));
+        e.UseDefinition = ItemIdUtil.canonicalItemId(getString(o, "UseDefinition"));
+        e.AbilityBar = getString(o, "AbilityBar");
+
+        // slot overrides
+        JsonObject so = (o.get("SlotOverrides") != null && o.get("SlotOverrides").isJsonObject())
+                ? o.getAsJsonObject("SlotOverrides")
+                : null;
+
+        if (so != null) {
+            e.SlotOverrides = new HashMap<>();
+            for (Map.Entry<String, JsonElement> se : so.entrySet()) {
+                int idx1to9;
+                try { idx1to9 = Integer.parseInt(se.getKey().trim()); }
+                catch (Throwable t) { continue; }
+
+                if (idx1to9 < 1 || idx1to9 > 9) continue;
+                if (!se.getValue().isJsonObject()) continue;
+
+                JsonObject spObj = se.getValue().getAsJsonObject();
+                ParsedPack.SlotPatch sp = new ParsedPack.SlotPatch();
+
+                sp.Key = getString(spObj, "Key");
+                sp.RootInteraction = getString(spObj, "RootInteraction");
+                sp.ID = getString(spObj, "ID");
+                sp.Icon = getString(spObj, "Icon");
+
+                sp.Plugin = getNullableBoolean(spObj, "Plugin");
+                sp.Consume = getNullableBoolean(spObj, "Consume");
+
+                sp.MaxUses = getNullableInt(spObj, "MaxUses");
+                sp.PowerMultiplier = getNullableFloat(spObj, "PowerMultiplier");
+                sp.AbilityValue = getNullableInt(spObj, "AbilityValue");
+                Float legacyTime = getNullableFloat(spObj, "Time");
+                sp.CooldownTime = getNullableFloat(spObj, "CooldownTime");
+                if (sp.CooldownTime == null) sp.CooldownTime = legacyTime;
+                sp.RechargeTime = getNullableFloat(spObj, "RechargeTime");
+                if (sp.RechargeTime == null) sp.RechargeTime = legacyTime;
+                sp.StartWithCooldown = getNullableBoolean(spObj, "StartWithCooldown");
+
+                e.SlotOverrides.put(idx1to9, sp);
+            }
+        }
+
+        return e;
     }
 
     // ----------------------------
-    // Runtime resolution (patch cloning)
+    // Snapshot build (end of pack loading)
     // ----------------------------
 
-    public boolean ensureRegistered(String itemId) {
-        if (itemId == null || itemId.isBlank()) return false;
-        String nItem = ItemIdUtil.normalizeItemId(itemId);
-
-        if (byItemId.containsKey(nItem)) return true;
+    /**
+     * Resolves every base definition and override chain (UseDefinition chains included,
+     * cycles rejected), compiles the bar templates and publishes the result in one
+     * volatile write. Call once all packs have been applied.
+     */
+    public void publishSnapshot() {
+        Map<String, WeaponDefinition> resolved = new HashMap<>(byItemId);
 
-        OverridePatch patch = overridePatches.get(nItem);
-        if (patch == null) return false;
+        Set<String> overrideItems = new TreeSet<>(overridePatches.keySet());
+        overrideItems.addAll(overrideUseDefinition.keySet());
 
-        String useDef = (patch.useDefinition != null) ? ItemIdUtil.normalizeItemId(patch.useDefinition) : null;
-        if (useDef == null || useDef.isBlank()) return false;
+        // Overrides that failed to resolve, so their dependents neither retry nor re-log them
+        Set<String> failed = new HashSet<>();
 
-        WeaponDefinition base = byItemId.get(useDef);
-        if (base == null) {
-            if (ensureRegistered(useDef)) {
-                base = byItemId.get(useDef);
-            }
+        int overridesResolved = 0;
+        int overridesFailed = 0;
+        for (String item : overrideItems) {
+            if (byItemId.containsKey(item)) continue;
+            if (resolveOverride(item, resolved, failed, new LinkedHashSet<>()) != null) overridesResolved++;
+            else overridesFailed++;
         }
 
-        if (base == null) {
-            System.out.println("[WeaponRegistry] Override refers to missing UseDefinition=" + useDef + " for ItemId=" + nItem);
-            return false;
+        Map<String, WeaponBarTemplate> templates = new HashMap<>();
+        for (Map.Entry<String, WeaponDefinition> e : resolved.entrySet()) {
+            WeaponBarTemplate t = WeaponBarTemplate.compile(e.getKey(), e.getValue());
+            if (t != null) templates.put(e.getKey(), t);
         }
 
-        WeaponDefinition resolved = cloneDefinitionForItem(base, nItem);
+        snapshot = new Snapshot(Map.copyOf(resolved), Map.copyOf(templates));
 
-        if (patch.abilityBar != null && !patch.abilityBar.isBlank()) {
-            resolved.AbilityBar = patch.abilityBar;
-        }
+        System.out.println("[WeaponRegistry] Snapshot published: definitions=" + resolved.size()
+                + " overrides=" + overridesResolved + " unresolved=" + overridesFailed + " bars=" + templates.size());
+    }
 
-        if (patch.slotOverrides != null && !patch.slotOverrides.isEmpty()) {
-            applySlotOverrides(resolved, patch.slotOverrides);
+    /** True if the item resolves to a definition in the published snapshot. */
+    public boolean ensureRegistered(String itemId) {
+        return getResolvedDefinition(itemId) != null;
+    }
+
+    /** chain is the UseDefinition path walked so far, in order (for the cycle message). */
+    private WeaponDefinition resolveOverride(
+            String nItem,
+            Map<String, WeaponDefinition> resolved,
+            Set<String> failed,
+            Set<String> chain
+    ) {
+        WeaponDefinition done = resolved.get(nItem);
+        if (done != null) return done;
+        if (failed.contains(nItem)) return null;
+
+        if (!chain.add(nItem)) {
+            System.out.println("[WeaponRegistry] Override cycle detected: " + String.join(" -> ", chain) + " -> " + nItem);
+            return null;
         }
 
-        byItemId.put(nItem, resolved);
-        System.out.println("[WeaponRegistry] Override-registered: " + nItem + " => " + useDef);
-        return true;
-    }
+        OverridePatch patch = overridePatches.get(nItem);
+        String useDef = (patch != null) ? patch.useDefinition : overrideUseDefinition.get(nItem);
+        useDef = ItemIdUtil.canonicalItemId(useDef);
+        if (useDef == null || useDef.isBlank()) {
+            failed.add(nItem);
+            return null;
+        }
 
-    // ----------------------------
-    // Parsing
-    // ----------------------------
+        // Only the link that actually points at nothing gets reported; a cycle is reported
+        // where it closes, and dependents of a failed override just fail with it.
+        boolean known = resolved.containsKey(useDef) || failed.contains(useDef)
+                || overridePatches.containsKey(useDef) || overrideUseDefinition.containsKey(useDef);
 
-    private WeaponDefinition parseWeaponDefinition(JsonObject obj) {
-        WeaponDefinition def = new WeaponDefinition();
-        def.ItemId = getString(obj, "ItemId");
-        def.AbilityBar = getString(obj, "AbilityBar");
-
-        JsonArray slotsArr = obj.getAsJsonArray("AbilitySlots");
-        List<WeaponAbilitySlot> slots = new ArrayList<>();
-
-        if (slotsArr != null) {
-            for (JsonElement el : slotsArr) {
-                if (!el.isJsonObject()) continue;
-                JsonObject sObj = el.getAsJsonObject();
-
-                WeaponAbilitySlot slot = new WeaponAbilitySlot();
-                slot.Key = getString(sObj, "Key");
-                slot.RootInteraction = getString(sObj, "RootInteraction");
-                slot.ID = getString(sObj, "ID");
-                slot.Plugin = getBooleanLenient(sObj, "Plugin");
-                slot.MaxUses = getInt(sObj, "MaxUses", 0);
-                slot.PowerMultiplier = getFloat(sObj, "PowerMultiplier", 1.0f);
-                slot.Icon = getString(sObj, "Icon");
-                slot.AbilityValue = getInt(sObj, "AbilityValue", 0);
-                slot.Consume = getBooleanLenient(sObj, "Consume");
-                float legacyTime = getFloat(sObj, "Time", -1.0f);
-                slot.CooldownTime = getFloat(sObj, "CooldownTime", (legacyTime >= 0.0f) ? legacyTime : 0.3f);
-                slot.RechargeTime = getFloat(sObj, "RechargeTime", (legacyTime >= 0.0f) ? legacyTime : 1.0f);
-                JsonElement swcEl = sObj.get("StartWithCooldown");
-                slot.StartWithCooldown = (swcEl == null || swcEl.isJsonNull()) || getBooleanLenient(sObj, "StartWithCooldown");
-
-                slots.add(slot);
+        WeaponDefinition base = resolveOverride(useDef, resolved, failed, chain);
+        if (base == null) {
+            if (!known) {
+                System.out.println("[WeaponRegistry] Override refers to missing UseDefinition=" + useDef + " for ItemId=" + nItem);
             }
+            failed.add(nItem);
+            return null;
         }
 
-        def.AbilitySlots = slots;
-        return def;
+        WeaponDefinition out = cloneDefinitionForItem(base, nItem);
+
+        if (patch != null && patch.abilityBar != null && !patch.abilityBar.isBlank()) {
+            out.AbilityBar = patch.abilityBar;
+        }
+
+        if (patch != null && patch.slotOverrides != null && !patch.slotOverrides.isEmpty()) {
+            applySlotOverrides(out, patch.slotOverrides);
+        }
+
+        resolved.put(nItem, out);
+        return out;
     }
 
     // ----------------------------
     // Slot override application
     // ----------------------------
 
-    private static void applySlotOverrides(WeaponDefinition def, Map<Integer, SlotPatch> slotOverrides) {
+    private static void applySlotOverrides(WeaponDefinition def, Map<Integer, ParsedPack.SlotPatch> slotOverrides) {
         if (def == null) return;
         if (def.AbilitySlots == null) def.AbilitySlots = new ArrayList<>();
 
-        for (Map.Entry<Integer, SlotPatch> e : slotOverrides.entrySet()) {
+        for (Map.Entry<Integer, ParsedPack.SlotPatch> e : slotOverrides.entrySet()) {
             int idx0 = e.getKey() - 1;
             if (idx0 < 0 || idx0 > 8) continue;
 
@@ -405,7 +433,7 @@ public class WeaponRegistry {
             WeaponAbilitySlot slot = def.AbilitySlots.get(idx0);
             if (slot == null) slot = new WeaponAbilitySlot();
 
-            SlotPatch p = e.getValue();
+            ParsedPack.SlotPatch p = e.getValue();
             if (p == null) continue;
 
             if (p.Key != null) slot.Key = p.Key;
@@ -464,17 +492,17 @@ public class WeaponRegistry {
     // JSON reading helpers
     // ----------------------------
 
-    private JsonObject readJsonObject(ModPackScanner.ResourceAccess access, String resourcePath) {
+    private interface StreamParser<T> {
+        T parse(InputStream in) throws IOException;
+    }
+
+    /** Streams one resource through a PackJsonReader parser. Missing or malformed -> null. */
+    private static <T> T readResource(ModPackScanner.ResourceAccess access, String resourcePath, StreamParser<T> parser) {
         if (access == null) return null;
 
         try (InputStream is = access.open(resourcePath)) {
             if (is == null) return null;
-
-            try (InputStreamReader r = new InputStreamReader(is, StandardCharsets.UTF_8)) {
-                JsonElement el = JsonParser.parseReader(r);
-                if (el == null || !el.isJsonObject()) return null;
-                return el.getAsJsonObject();
-            }
+            return parser.parse(is);
         } catch (IOException e) {
             return null;
         } catch (Throwable t) {
@@ -489,95 +517,29 @@ public class WeaponRegistry {
     }
 
     private static String getString(JsonObject obj, String key) {
-        JsonElement e = obj.get(key);
-        if (e == null || e.isJsonNull()) return null;
-        try { return e.getAsString(); } catch (Throwable ignored) { return null; }
-    }
-
-    private static int getInt(JsonObject obj, String key, int def) {
-        JsonElement e = obj.get(key);
-        if (e == null || e.isJsonNull()) return def;
-        try { return e.getAsInt(); } catch (Throwable ignored) { return def; }
+        return PackJsonReader.asString(obj.get(key));
     }
 
     private static Integer getNullableInt(JsonObject obj, String key) {
-        JsonElement e = obj.get(key);
-        if (e == null || e.isJsonNull()) return null;
-        try { return e.getAsInt(); } catch (Throwable ignored) { return null; }
-    }
-
-    private static float getFloat(JsonObject obj, String key, float def) {
-        JsonElement e = obj.get(key);
-        if (e == null || e.isJsonNull()) return def;
-        try { return e.getAsFloat(); } catch (Throwable ignored) { return def; }
+        return PackJsonReader.asNullableInt(obj.get(key));
     }
 
     private static Float getNullableFloat(JsonObject obj, String key) {
-        JsonElement e = obj.get(key);
-        if (e == null || e.isJsonNull()) return null;
-        try { return e.getAsFloat(); } catch (Throwable ignored) { return null; }
-    }
-
-    private static boolean getBooleanLenient(JsonObject obj, String key) {
-        JsonElement e = obj.get(key);
-        if (e == null || e.isJsonNull()) return false;
-
-        try {
-            if (e.isJsonPrimitive()) {
-                JsonPrimitive p = e.getAsJsonPrimitive();
-                if (p.isBoolean()) return p.getAsBoolean();
-                if (p.isString()) return Boolean.parseBoolean(p.getAsString().trim().toLowerCase());
-                if (p.isNumber()) return p.getAsInt() != 0;
-            }
-        } catch (Throwable ignored) {}
-
-        return false;
+        return PackJsonReader.asNullableFloat(obj.get(key));
     }
 
     private static Boolean getNullableBoolean(JsonObject obj, String key) {
-        JsonElement e = obj.get(key);
-        if (e == null || e.isJsonNull()) return null;
-
-        try {
-            if (e.isJsonPrimitive()) {
-                JsonPrimitive p = e.getAsJsonPrimitive();
-                if (p.isBoolean()) return p.getAsBoolean();
-                if (p.isString()) return Boolean.parseBoolean(p.getAsString().trim().toLowerCase());
-                if (p.isNumber()) return p.getAsInt() != 0;
-            }
-        } catch (Throwable ignored) {}
-
-        return null;
+        return PackJsonReader.asNullableBoolean(obj.get(key));
     }
 
     // ----------------------------
     // Small models
     // ----------------------------
 
-    private static final class WeaponIndex {
-        public List<String> Includes;
-        public List<String> Weapons;
-    }
-
     private static final class OverridePatch {
         String itemId;
         String useDefinition;
         String abilityBar;
-        Map<Integer, SlotPatch> slotOverrides;
-    }
-
-    private static final class SlotPatch {
-        String Key;
-        String RootInteraction;
-        String ID;
-        String Icon;
-        Boolean Plugin;
-        Boolean Consume;
-        Integer MaxUses;
-        Float PowerMultiplier;
-        Integer AbilityValue;
-        Float CooldownTime;
-        Float RechargeTime;
-        Boolean StartWithCooldown;
+        Map<Integer, ParsedPack.SlotPatch> slotOverrides;
     }
 }
@@ -0,0 +1,125 @@
+package com.abilities.abilitiesplugin;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-player queue of world-thread actions posted by the packet filter.
+ *
+ * Actions run in the order they were posted. However many are posted, at most one world
+ * task is queued for the mailbox at a time, and it runs everything pending when the world
+ * gets to it.
+ *
+ * Ordering against the engine: an action rides the world queue slot of the task that is
+ * already queued, so it can run ahead of engine tasks queued since. That is only allowed up
+ * to a packet the filter passed on ({@link #passedOn}): actions posted after it wait for a
+ * new slot, behind whatever the engine queued while handling that packet.
+ *
+ * A mailbox is bound to one world. When the player changes worlds, State#mailbox hands out
+ * a fresh one and {@link #retire}s the old one, whose pending actions (built against the
+ * old world's store and ref) are dropped instead of run.
+ */
+final class WorldMailbox implements Runnable {
+
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    // queued by passedOn(); never run
+    private static final Runnable BARRIER = () -> {};
+
+    final World world;
+
+    private final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // a barrier is the last thing queued; saves queueing one per passed-on packet
+    private final AtomicBoolean sealed = new AtomicBoolean();
+    private volatile boolean retired;
+
+    WorldMailbox(World world) {
+        this.world = world;
+    }
+
+    /** Any thread. Returns true if this post queued a new world task. */
+    boolean post(Runnable action) {
+        sealed.set(false);
+        pending.add(action);
+        if (!scheduled.compareAndSet(false, true)) return false;
+
+        try {
+            world.execute(this);
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Packet thread: the filter let a packet through to the engine. Actions posted from now
+     * on run in a later world task than the one currently queued. Nothing to do when no task
+     * is queued, as the next post takes a new slot anyway.
+     */
+    void passedOn() {
+        if (scheduled.get() && sealed.compareAndSet(false, true)) pending.add(BARRIER);
+    }
+
+    /** Packet thread: the player left this mailbox's world; pending actions are dropped. */
+    void retire() {
+        retired = true;
+    }
+
+    /** World thread. */
+    @Override
+    public void run() {
+        while (true) {
+            Runnable action;
+            while ((action = pending.poll()) != null) {
+                if (retired) {
+                    dropPending(action);
+                    break;
+                }
+                if (action == BARRIER) {
+                    // give up this slot; anything left goes behind the engine's queued tasks
+                    release();
+                    return;
+                }
+                try {
+                    action.run();
+                } catch (Throwable t) {
+                    LOGGER.atSevere().log("[HCA] Queued world action failed: %s", String.valueOf(t.getMessage()));
+                }
+            }
+
+            scheduled.set(false);
+
+            // A post that landed between the last poll and the reset saw the flag still set
+            // and did not schedule anything; pick it up here.
+            if (pending.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+        }
+    }
+
+    private void release() {
+        scheduled.set(false);
+        if (pending.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+
+        try {
+            world.execute(this);
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+            LOGGER.atSevere().log("[HCA] Could not requeue world actions: %s", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void dropPending(Runnable first) {
+        int dropped = (first == BARRIER) ? 0 : 1;
+        Runnable action;
+        while ((action = pending.poll()) != null) {
+            if (action != BARRIER) dropped++;
+        }
+        if (dropped > 0) {
+            LOGGER.atInfo().log("[HCA] Dropped %d world action(s) queued before the player changed worlds", dropped);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.abilities.abilitiesplugin;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipFile;
+
+/**
+ * Keeps each jar open for the duration of one pack scan.
+ *
+ * Opening a ZipFile re-reads the central directory, so a pack with hundreds of
+ * weapon files would otherwise parse the same directory hundreds of times.
+ * ZipFile is safe for concurrent reads; everything is closed by {@link #close()}.
+ */
+final class ZipFilePool implements AutoCloseable {
+
+    private final Map<Path, ZipFile> open = new ConcurrentHashMap<>();
+
+    private final AtomicLong opens = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /** Returns the shared handle for the jar, opening it on first use. Do not close it. */
+    ZipFile get(Path jarPath) throws IOException {
+        if (closed) throw new IOException("zip pool closed");
+
+        Path key = jarPath.toAbsolutePath().normalize();
+
+        ZipFile zip = open.get(key);
+        if (zip != null) {
+            reuses.incrementAndGet();
+            return zip;
+        }
+
+        try {
+            return open.computeIfAbsent(key, p -> {
+                try {
+                    opens.incrementAndGet();
+                    return new ZipFile(p.toFile());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (ZipFile zip : open.values()) {
+            try {
+                zip.close();
+            } catch (IOException ignored) {
+            }
+        }
+        open.clear();
+    }
+
+    String describeStats() {
+        return "opens=" + opens.get() + " reuses=" + reuses.get();
+    }
+}